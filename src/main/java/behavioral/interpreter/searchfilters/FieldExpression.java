@@ -177,6 +177,27 @@ public class FieldExpression implements SearchExpression {
         return expectedValue.toString();
     }
     
+    /**
+     * Gets the name of the field being compared.
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+    
+    /**
+     * Gets the comparison operator.
+     */
+    public ComparisonOperator getOperator() {
+        return operator;
+    }
+    
+    /**
+     * Gets the value the field is compared against.
+     */
+    public Object getExpectedValue() {
+        return expectedValue;
+    }
+    
     @Override
     public double getSelectivity() {
         return switch (operator) {
@@ -0,0 +1,360 @@
+package behavioral.interpreter.searchfilters;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Secondary indexes over one field of an indexed collection, built from a snapshot of the
+ * field's values taken when the field is first queried.
+ *
+ * A hash index maps each value to the items holding it, for = and !=. Sorted indexes order
+ * the numeric and the date/time values, for >, >=, <, <= and ranges. Each part is built on
+ * first use; a race builds it twice, which is harmless as the parts are immutable.
+ *
+ * Lookups give exactly the items {@link FieldExpression#matches} and
+ * {@link RangeExpression#matches} would accept. They return null for everything else,
+ * including comparisons the expression would reject with an exception, so that the scan
+ * still reports them.
+ */
+final class FieldIndex {
+    private static final int[] NO_IDS = new int[0];
+    private static final Object UNHASHABLE = new Object();
+
+    private final int itemCount;
+    private final Object[] values;      // field value by item id, null when absent
+    private final int[] present;        // ids of items that have the field, ascending
+    private volatile Map<Object, int[]> hashIndex;
+    private volatile boolean hashable = true;
+    private volatile NumericIndex numericIndex;
+    private volatile DateIndex dateIndex;
+
+    FieldIndex(List<SearchableItem> items, String fieldName) {
+        this.itemCount = items.size();
+        this.values = new Object[itemCount];
+        TextIndex.IdList withField = new TextIndex.IdList();
+        for (int id = 0; id < itemCount; id++) {
+            SearchableItem item = items.get(id);
+            if (item.hasField(fieldName)) {
+                values[id] = item.getFieldValue(fieldName);
+                withField.add(id);
+            }
+        }
+        this.present = withField.toArray();
+    }
+
+    /**
+     * Whether the comparison's operator has an index, checked before the field is snapshotted
+     */
+    static boolean supports(FieldExpression expression) {
+        return switch (expression.getOperator()) {
+            case EQUALS, NOT_EQUALS, GREATER_THAN, LESS_THAN, GREATER_EQUAL, LESS_EQUAL -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether the range's type has an index, checked before the field is snapshotted
+     */
+    static boolean supports(RangeExpression expression) {
+        return expression.getRangeType() == RangeExpression.RangeType.NUMERIC
+            || expression.getRangeType() == RangeExpression.RangeType.DATE_TIME;
+    }
+
+    /**
+     * Items the comparison matches; null for operators or values the index cannot answer
+     */
+    SearchIndex.Lookup lookup(FieldExpression expression) {
+        Object expected = expression.getExpectedValue();
+        return switch (expression.getOperator()) {
+            case EQUALS -> equalTo(expected);
+            case NOT_EQUALS -> notEqualTo(expected);
+            case GREATER_THAN, LESS_THAN, GREATER_EQUAL, LESS_EQUAL -> compareTo(expression.getOperator(), expected);
+            default -> null;
+        };
+    }
+
+    /**
+     * Items inside the range; null for range types or bounds the index cannot answer
+     */
+    SearchIndex.Lookup lookup(RangeExpression expression) {
+        return switch (expression.getRangeType()) {
+            case NUMERIC -> numericRange(expression);
+            case DATE_TIME -> dateRange(expression);
+            default -> null;
+        };
+    }
+
+    private SearchIndex.Lookup equalTo(Object expected) {
+        int[] ids = equalIds(expected);
+        return ids == null ? null : SearchIndex.Lookup.of(ids);
+    }
+
+    private SearchIndex.Lookup notEqualTo(Object expected) {
+        int[] equal = equalIds(expected);
+        if (equal == null) {
+            return null;
+        }
+        // Items without the field match neither = nor !=
+        return new SearchIndex.Lookup(present.length - equal.length, () -> difference(present, equal));
+    }
+
+    private int[] equalIds(Object expected) {
+        Object key = key(expected);
+        Map<Object, int[]> index = hashIndex();
+        if (key == UNHASHABLE || index == null) {
+            return null;
+        }
+        return index.getOrDefault(key, NO_IDS);
+    }
+
+    /**
+     * Hash key under which equal values meet: numbers by their double value, strings case-folded
+     * the way equalsIgnoreCase compares them, and other supported values as they are
+     */
+    private static Object key(Object value) {
+        if (value == null || value instanceof Boolean || value instanceof LocalDateTime) {
+            return value;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String string) {
+            return string.codePoints()
+                         .map(c -> Character.toLowerCase(Character.toUpperCase(c)))
+                         .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                         .toString();
+        }
+        return UNHASHABLE;
+    }
+
+    /**
+     * Value to ids map over the items with the field; null when a value has a type without a key
+     */
+    private Map<Object, int[]> hashIndex() {
+        Map<Object, int[]> index = hashIndex;
+        if (index != null || !hashable) {
+            return index;
+        }
+        Map<Object, TextIndex.IdList> byKey = new HashMap<>();
+        for (int id : present) {
+            Object key = key(values[id]);
+            if (key == UNHASHABLE) {
+                hashable = false;
+                return null;
+            }
+            byKey.computeIfAbsent(key, k -> new TextIndex.IdList()).add(id);
+        }
+        index = new HashMap<>(byKey.size() * 2);
+        for (Map.Entry<Object, TextIndex.IdList> entry : byKey.entrySet()) {
+            index.put(entry.getKey(), entry.getValue().toArray());
+        }
+        hashIndex = index;
+        return index;
+    }
+
+    private SearchIndex.Lookup compareTo(FieldExpression.ComparisonOperator operator, Object expected) {
+        // The expression throws on non-numeric operands; leave those to the scan
+        if (!(expected instanceof Number number)) {
+            return null;
+        }
+        NumericIndex index = numericIndex();
+        if (!index.allNumeric()) {
+            return null;
+        }
+        double value = number.doubleValue();
+        double[] sorted = index.values();
+        int lower = first(0, sorted.length, p -> Double.compare(sorted[p], value) >= 0);
+        int upper = first(lower, sorted.length, p -> Double.compare(sorted[p], value) > 0);
+        return switch (operator) {
+            case GREATER_THAN -> positions(index.ids(), upper, sorted.length);
+            case GREATER_EQUAL -> positions(index.ids(), lower, sorted.length);
+            case LESS_THAN -> positions(index.ids(), 0, lower);
+            default -> positions(index.ids(), 0, upper);
+        };
+    }
+
+    private SearchIndex.Lookup numericRange(RangeExpression expression) {
+        Object min = expression.getMinValue();
+        Object max = expression.getMaxValue();
+        if ((min != null && !(min instanceof Number)) || (max != null && !(max instanceof Number))) {
+            return null;
+        }
+        NumericIndex index = numericIndex();
+        double[] sorted = index.values();
+        int nanStart = index.nanStart();
+
+        // A NaN bound rejects nothing, and a NaN value passes every bound, as in matchesNumericRange
+        int from = 0;
+        int to = nanStart;
+        if (min != null && !Double.isNaN(((Number) min).doubleValue())) {
+            double bound = ((Number) min).doubleValue();
+            from = expression.isMinInclusive()
+                ? first(0, nanStart, p -> sorted[p] >= bound)
+                : first(0, nanStart, p -> sorted[p] > bound);
+        }
+        if (max != null && !Double.isNaN(((Number) max).doubleValue())) {
+            double bound = ((Number) max).doubleValue();
+            to = expression.isMaxInclusive()
+                ? first(from, nanStart, p -> sorted[p] > bound)
+                : first(from, nanStart, p -> sorted[p] >= bound);
+        }
+        int start = from;
+        int inRange = Math.max(0, to - from);
+        int[] ids = index.ids();
+        int nans = sorted.length - nanStart;
+        return new SearchIndex.Lookup(inRange + nans, () -> {
+            int[] matches = new int[inRange + nans];
+            System.arraycopy(ids, start, matches, 0, inRange);
+            System.arraycopy(ids, nanStart, matches, inRange, nans);
+            Arrays.sort(matches);
+            return matches;
+        });
+    }
+
+    private SearchIndex.Lookup dateRange(RangeExpression expression) {
+        DateIndex index = dateIndex();
+        LocalDateTime[] sorted = index.values();
+        int from = 0;
+        int to = sorted.length;
+        // Bounds of other types are ignored, as in matchesDateTimeRange
+        if (expression.getMinValue() instanceof LocalDateTime min) {
+            from = expression.isMinInclusive()
+                ? first(0, sorted.length, p -> !sorted[p].isBefore(min))
+                : first(0, sorted.length, p -> sorted[p].isAfter(min));
+        }
+        if (expression.getMaxValue() instanceof LocalDateTime max) {
+            to = expression.isMaxInclusive()
+                ? first(from, sorted.length, p -> sorted[p].isAfter(max))
+                : first(from, sorted.length, p -> !sorted[p].isBefore(max));
+        }
+        return positions(index.ids(), from, Math.max(from, to));
+    }
+
+    /**
+     * Ids at positions [from, to) of a sorted index, ascending
+     */
+    private static SearchIndex.Lookup positions(int[] ids, int from, int to) {
+        return new SearchIndex.Lookup(to - from, () -> {
+            int[] matches = Arrays.copyOfRange(ids, from, to);
+            Arrays.sort(matches);
+            return matches;
+        });
+    }
+
+    /**
+     * First position in [from, to) where the predicate holds, or to; it must be false, then true
+     */
+    private static int first(int from, int to, IntPredicate holds) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (holds.test(mid)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ids in all but not in some, both ascending and some a subset of all
+     */
+    private static int[] difference(int[] all, int[] some) {
+        int[] result = new int[all.length - some.length];
+        int count = 0;
+        int next = 0;
+        for (int id : all) {
+            if (next < some.length && some[next] == id) {
+                next++;
+            } else {
+                result[count++] = id;
+            }
+        }
+        return result;
+    }
+
+    private NumericIndex numericIndex() {
+        NumericIndex index = numericIndex;
+        if (index == null) {
+            TextIndex.IdList numeric = new TextIndex.IdList();
+            for (int id : present) {
+                if (values[id] instanceof Number) {
+                    numeric.add(id);
+                }
+            }
+            int[] ids = Arrays.stream(numeric.toArray())
+                              .boxed()
+                              .sorted(Comparator.comparingDouble(id -> ((Number) values[id]).doubleValue()))
+                              .mapToInt(Integer::intValue)
+                              .toArray();
+            double[] sorted = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sorted[i] = ((Number) values[ids[i]]).doubleValue();
+            }
+            int nanStart = first(0, sorted.length, p -> Double.isNaN(sorted[p]));
+            index = new NumericIndex(sorted, ids, nanStart, ids.length == present.length);
+            numericIndex = index;
+        }
+        return index;
+    }
+
+    private DateIndex dateIndex() {
+        DateIndex index = dateIndex;
+        if (index == null) {
+            LocalDateTime[] dates = new LocalDateTime[itemCount];
+            TextIndex.IdList dated = new TextIndex.IdList();
+            for (int id : present) {
+                dates[id] = toDateTime(values[id]);
+                if (dates[id] != null) {
+                    dated.add(id);
+                }
+            }
+            int[] ids = Arrays.stream(dated.toArray())
+                              .boxed()
+                              .sorted(Comparator.comparing(id -> dates[id]))
+                              .mapToInt(Integer::intValue)
+                              .toArray();
+            LocalDateTime[] sorted = new LocalDateTime[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sorted[i] = dates[ids[i]];
+            }
+            index = new DateIndex(sorted, ids);
+            dateIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * The value as a date/time the way RangeExpression reads it; null when it is not one
+     */
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime;
+        }
+        if (value instanceof String string) {
+            try {
+                return LocalDateTime.parse(string);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Numeric values in Double.compare order, so NaNs come last from nanStart, with their item ids
+     */
+    private record NumericIndex(double[] values, int[] ids, int nanStart, boolean allNumeric) {
+    }
+
+    private record DateIndex(LocalDateTime[] values, int[] ids) {
+    }
+}
@@ -0,0 +1,165 @@
+package behavioral.interpreter.searchfilters;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index-aware planner for one indexed collection. Rewrites an expression into index
+ * lookups that produce candidate items, plus a residual expression that is evaluated
+ * with matches on the candidates only.
+ *
+ * Text searches, field comparisons and ranges are looked up in the {@link SearchIndex}.
+ * The children of an AND are intersected from the smallest lookup up; a lookup more than
+ * RESIDUAL_RATIO times larger than the candidates so far is not materialized, and its
+ * predicate joins the residual instead, since checking it on the few candidates is cheaper.
+ * An OR is answered from the indexes only when every branch is, and a NOT only when its
+ * operand is answered exactly.
+ */
+final class QueryPlanner {
+    private static final int RESIDUAL_RATIO = 8;
+
+    private final SearchIndex index;
+
+    QueryPlanner(SearchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Plans the expression; the plan's matches are exactly the items the expression matches
+     */
+    Plan plan(SearchExpression expression) {
+        Access access = access(expression);
+        if (access == null) {
+            return new Plan(null, expression);
+        }
+        return new Plan(access.lookup().ids(), access.residual());
+    }
+
+    /**
+     * How to find the items matching an expression from the indexes; null when it needs a scan
+     */
+    private Access access(SearchExpression expression) {
+        if (expression instanceof QueryExpression query) {
+            return access(query.getRootExpression());
+        }
+        if (expression instanceof TextSearchExpression text) {
+            int[] ids = index.getTextIndex().lookup(text);
+            return ids == null ? null : new Access(SearchIndex.Lookup.of(ids), null);
+        }
+        if (expression instanceof FieldExpression field && FieldIndex.supports(field)) {
+            return exact(index.getFieldIndex(field.getFieldName()).lookup(field));
+        }
+        if (expression instanceof RangeExpression range && FieldIndex.supports(range)) {
+            return exact(index.getFieldIndex(range.getFieldName()).lookup(range));
+        }
+        if (expression instanceof AndExpression and) {
+            return and(and.getExpressions());
+        }
+        if (expression instanceof OrExpression or) {
+            return or(or);
+        }
+        if (expression instanceof NotExpression not) {
+            return not(not.getExpression());
+        }
+        return null;
+    }
+
+    private static Access exact(SearchIndex.Lookup lookup) {
+        return lookup == null ? null : new Access(lookup, null);
+    }
+
+    private Access and(List<SearchExpression> children) {
+        Access[] accesses = new Access[children.size()];
+        List<Integer> indexed = new ArrayList<>();
+        for (int i = 0; i < accesses.length; i++) {
+            accesses[i] = access(children.get(i));
+            if (accesses[i] != null) {
+                indexed.add(i);
+            }
+        }
+        if (indexed.isEmpty()) {
+            return null;
+        }
+
+        // Narrow from the most selective lookup; children not intersected stay in the residual
+        indexed.sort(Comparator.comparingInt(i -> accesses[i].lookup().size()));
+        boolean[] intersected = new boolean[accesses.length];
+        int[] ids = null;
+        for (int i : indexed) {
+            SearchIndex.Lookup lookup = accesses[i].lookup();
+            if (ids != null && (ids.length == 0 || lookup.size() > (long) ids.length * RESIDUAL_RATIO)) {
+                break; // the lookups are sorted by size, so the rest are at least as large
+            }
+            ids = ids == null ? lookup.ids() : TextIndex.intersect(ids, lookup.ids());
+            intersected[i] = true;
+        }
+        if (ids.length == 0) {
+            return new Access(SearchIndex.Lookup.of(ids), null);
+        }
+
+        List<SearchExpression> residual = new ArrayList<>();
+        for (int i = 0; i < accesses.length; i++) {
+            if (!intersected[i]) {
+                residual.add(children.get(i));
+            } else if (accesses[i].residual() != null) {
+                residual.add(accesses[i].residual());
+            }
+        }
+        SearchExpression rest = switch (residual.size()) {
+            case 0 -> null;
+            case 1 -> residual.get(0);
+            default -> new AndExpression(residual);
+        };
+        return new Access(SearchIndex.Lookup.of(ids), rest);
+    }
+
+    private Access or(OrExpression or) {
+        // Every branch has to come from the indexes, or the union could miss matches
+        BitSet union = new BitSet(index.getItems().size());
+        boolean exact = true;
+        for (SearchExpression child : or.getExpressions()) {
+            Access access = access(child);
+            if (access == null) {
+                return null;
+            }
+            for (int id : access.lookup().ids()) {
+                union.set(id);
+            }
+            exact &= access.residual() == null;
+        }
+        // A branch with a residual only narrows its own candidates, so recheck the whole OR
+        return new Access(SearchIndex.Lookup.of(union.stream().toArray()), exact ? null : or);
+    }
+
+    private Access not(SearchExpression operand) {
+        Access access = access(operand);
+        if (access == null || access.residual() != null) {
+            return null;
+        }
+        int itemCount = index.getItems().size();
+        SearchIndex.Lookup lookup = access.lookup();
+        return new Access(new SearchIndex.Lookup(itemCount - lookup.size(), () -> {
+            BitSet complement = new BitSet(itemCount);
+            complement.set(0, itemCount);
+            for (int id : lookup.ids()) {
+                complement.clear(id);
+            }
+            return complement.stream().toArray();
+        }), null);
+    }
+
+    /**
+     * An item matches when its id is in the lookup and it matches the residual, if there is one
+     */
+    private record Access(SearchIndex.Lookup lookup, SearchExpression residual) {
+    }
+
+    /**
+     * Ascending ids of the candidate items, or null for every item, and the expression still
+     * to evaluate on them, or null when the candidates are exactly the matches
+     */
+    record Plan(int[] candidates, SearchExpression residual) {
+    }
+}
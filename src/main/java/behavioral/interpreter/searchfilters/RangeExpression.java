@@ -215,6 +215,48 @@ public class RangeExpression implements SearchExpression {
         return sb.toString();
     }
     
+    /**
+     * Gets the name of the field being checked.
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+    
+    /**
+     * Gets the lower bound, or null when the range is open below.
+     */
+    public Object getMinValue() {
+        return minValue;
+    }
+    
+    /**
+     * Gets the upper bound, or null when the range is open above.
+     */
+    public Object getMaxValue() {
+        return maxValue;
+    }
+    
+    /**
+     * Checks if the lower bound is inclusive.
+     */
+    public boolean isMinInclusive() {
+        return minInclusive;
+    }
+    
+    /**
+     * Checks if the upper bound is inclusive.
+     */
+    public boolean isMaxInclusive() {
+        return maxInclusive;
+    }
+    
+    /**
+     * Gets the kind of value the range applies to.
+     */
+    public RangeType getRangeType() {
+        return rangeType;
+    }
+    
     @Override
     public double getSelectivity() {
         return switch (rangeType) {
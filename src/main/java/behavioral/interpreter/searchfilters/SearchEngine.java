@@ -9,10 +9,12 @@ import java.util.stream.Collectors;
 /**
  * High-performance search engine that uses the Interpreter pattern to evaluate
  * complex search queries against collections of searchable items.
+ * Indexed collections carry an inverted text index and per-field secondary indexes, and
+ * a query planner answers what it can from them, evaluating only the rest item by item.
  */
 public class SearchEngine {
     private final SearchQueryParser parser;
-    private final Map<String, List<SearchableItem>> indices;
+    private final Map<String, SearchIndex> indices;
     private final boolean enableParallelSearch;
     private final int maxResults;
     private final Map<String, SearchExpression> cachedQueries;
@@ -31,9 +33,11 @@ public class SearchEngine {
     
     /**
      * Indexes a collection of searchable items for faster searching.
+     * Builds the inverted text index up front, and each field index when a query first needs it;
+     * replacing an index is atomic for searches.
      */
     public void indexItems(String indexName, Collection<SearchableItem> items) {
-        indices.put(indexName, new ArrayList<>(items));
+        indices.put(indexName, new SearchIndex(new ArrayList<>(items)));
     }
     
     /**
@@ -48,10 +52,11 @@ public class SearchEngine {
      * Searches for items using a pre-built search expression.
      */
     public SearchResult search(String indexName, SearchExpression expression) {
-        List<SearchableItem> items = indices.get(indexName);
-        if (items == null || items.isEmpty()) {
+        SearchIndex index = indices.get(indexName);
+        if (index == null || index.getItems().isEmpty()) {
             return SearchResult.of(List.of(), expression.getQueryString());
         }
+        List<SearchableItem> items = index.getItems();
         
         long startTime = System.currentTimeMillis();
         
@@ -60,12 +65,16 @@ public class SearchEngine {
             expression = queryExpr.optimize();
         }
         
-        List<SearchableItem> results;
-        if (enableParallelSearch && items.size() > 1000) {
-            results = parallelSearch(items, expression);
-        } else {
-            results = sequentialSearch(items, expression);
+        // Answer what the indexes can, and evaluate only the residual expression on the candidates
+        QueryPlanner.Plan plan = new QueryPlanner(index).plan(expression);
+        List<SearchableItem> candidates = items;
+        if (plan.candidates() != null) {
+            candidates = new ArrayList<>(plan.candidates().length);
+            for (int id : plan.candidates()) {
+                candidates.add(items.get(id));
+            }
         }
+        List<SearchableItem> results = plan.residual() == null ? candidates : scan(candidates, plan.residual());
         
         // Limit results
         if (results.size() > maxResults) {
@@ -136,10 +145,11 @@ public class SearchEngine {
      * Suggests query completions based on indexed content.
      */
     public List<String> suggestQueries(String indexName, String partialQuery, int maxSuggestions) {
-        List<SearchableItem> items = indices.get(indexName);
-        if (items == null || partialQuery.length() < 2) {
+        SearchIndex index = indices.get(indexName);
+        if (index == null || partialQuery.length() < 2) {
             return List.of();
         }
+        List<SearchableItem> items = index.getItems();
         
         String lowerPartial = partialQuery.toLowerCase();
         Set<String> suggestions = new HashSet<>();
@@ -172,10 +182,11 @@ public class SearchEngine {
      * Gets search statistics for an index.
      */
     public SearchIndexStats getIndexStats(String indexName) {
-        List<SearchableItem> items = indices.get(indexName);
-        if (items == null) {
+        SearchIndex index = indices.get(indexName);
+        if (index == null) {
             return new SearchIndexStats(indexName, 0, 0, Set.of(), Set.of());
         }
+        List<SearchableItem> items = index.getItems();
         
         Set<String> fieldNames = items.stream()
             .flatMap(item -> item.getFieldNames().stream())
@@ -216,6 +227,13 @@ public class SearchEngine {
         return indices.remove(indexName) != null;
     }
     
+    private List<SearchableItem> scan(List<SearchableItem> items, SearchExpression expression) {
+        if (enableParallelSearch && items.size() > 1000) {
+            return parallelSearch(items, expression);
+        }
+        return sequentialSearch(items, expression);
+    }
+    
     private List<SearchableItem> sequentialSearch(List<SearchableItem> items, SearchExpression expression) {
         return items.stream()
                    .filter(expression::matches)
@@ -0,0 +1,52 @@
+package behavioral.interpreter.searchfilters;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * One indexed collection: the items in indexing order, plus the indexes built over them.
+ * Items are identified by their position in the list, and every index lookup returns
+ * ascending positions, so results keep the indexing order.
+ *
+ * The text index is built with the collection; a {@link FieldIndex} is built for each field
+ * the first time a query compares it.
+ */
+final class SearchIndex {
+    private final List<SearchableItem> items;
+    private final TextIndex textIndex;
+    private final Map<String, FieldIndex> fieldIndexes = new ConcurrentHashMap<>();
+
+    SearchIndex(List<SearchableItem> items) {
+        this.items = List.copyOf(items);
+        this.textIndex = new TextIndex(this.items);
+    }
+
+    List<SearchableItem> getItems() {
+        return items;
+    }
+
+    TextIndex getTextIndex() {
+        return textIndex;
+    }
+
+    FieldIndex getFieldIndex(String fieldName) {
+        return fieldIndexes.computeIfAbsent(fieldName, name -> new FieldIndex(items, name));
+    }
+
+    /**
+     * Result of an index lookup: the number of matching items is known up front, and their
+     * ascending ids are only computed when asked for, so a planner can skip large lookups
+     */
+    record Lookup(int size, Supplier<int[]> supplier) {
+
+        static Lookup of(int[] ids) {
+            return new Lookup(ids.length, () -> ids);
+        }
+
+        int[] ids() {
+            return supplier.get();
+        }
+    }
+}
@@ -226,26 +226,14 @@ public class SearchQueryParser {
         StringBuilder fieldExpr = new StringBuilder();
         int startPos = position[0];
         
-        // Look ahead to determine if this is a BETWEEN expression
-        boolean isBetween = false;
-        for (int i = position[0]; i < Math.min(position[0] + 5, tokens.size()); i++) {
-            if ("BETWEEN".equalsIgnoreCase(tokens.get(i))) {
-                isBetween = true;
-                break;
-            }
-        }
+        // Look ahead to determine if this is a BETWEEN expression: field BETWEEN min AND max
+        boolean isBetween = startPos + 1 < tokens.size() && "BETWEEN".equalsIgnoreCase(tokens.get(startPos + 1));
         
         if (isBetween) {
-            // Parse BETWEEN expression
-            while (position[0] < tokens.size()) {
-                String token = tokens.get(position[0]++);
-                fieldExpr.append(token).append(" ");
-                
-                if (position[0] > startPos + 1 && 
-                    !isPartOfExpression(token) && 
-                    !isLogicalOperator(token)) {
-                    break;
-                }
+            // Parse BETWEEN expression; its AND belongs to the range, not to the enclosing expression
+            int endPos = Math.min(startPos + 5, tokens.size());
+            while (position[0] < endPos) {
+                fieldExpr.append(tokens.get(position[0]++)).append(" ");
             }
             
             return parseRangeExpression(fieldExpr.toString().trim());
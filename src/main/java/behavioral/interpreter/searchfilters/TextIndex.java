@@ -0,0 +1,225 @@
+package behavioral.interpreter.searchfilters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the searchable text of one indexed collection.
+ * Maps each lowercased whitespace-separated term to the sorted ids (positions) of the
+ * items containing it, and keeps the items sorted by their full text for prefix lookups.
+ *
+ * Lookups give exactly the items that case-insensitive {@link TextSearchExpression#matches}
+ * would accept. Its word modes match substrings, and a query word has no whitespace, so
+ * it can only occur inside a single term: a word is answered by the postings of every
+ * term that contains it.
+ */
+final class TextIndex {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_WORDS = 1024;
+
+    private final int itemCount;
+    private final String[] texts;       // lowercased searchable text by item id, null when blank
+    private final String[] terms;       // sorted
+    private final int[][] postings;     // item ids by term, parallel to terms
+    private final Map<String, Integer> termIds;
+    private final int[] byText;         // ids of items with text, sorted by text
+    private final int[] withText;       // ids of items with text, ascending
+    private final Map<String, int[]> wordCache = new ConcurrentHashMap<>();
+
+    TextIndex(List<SearchableItem> items) {
+        this.itemCount = items.size();
+        this.texts = new String[itemCount];
+        Map<String, IdList> termPostings = new HashMap<>();
+        IdList nonBlank = new IdList();
+
+        for (int id = 0; id < itemCount; id++) {
+            String content = items.get(id).getSearchableText();
+            if (content == null || content.trim().isEmpty()) {
+                continue;
+            }
+            String text = content.toLowerCase();
+            texts[id] = text;
+            nonBlank.add(id);
+            for (String term : WHITESPACE.split(text)) {
+                if (!term.isEmpty()) {
+                    termPostings.computeIfAbsent(term, t -> new IdList()).add(id);
+                }
+            }
+        }
+
+        this.terms = termPostings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        this.postings = new int[terms.length][];
+        this.termIds = new HashMap<>(terms.length * 2);
+        for (int t = 0; t < terms.length; t++) {
+            postings[t] = termPostings.get(terms[t]).toArray();
+            termIds.put(terms[t], t);
+        }
+
+        this.withText = nonBlank.toArray();
+        this.byText = Arrays.stream(withText)
+                            .boxed()
+                            .sorted(Comparator.comparing(id -> texts[id]))
+                            .mapToInt(Integer::intValue)
+                            .toArray();
+    }
+
+    /**
+     * Ids of the items the expression matches, ascending; null for modes the index cannot answer
+     */
+    int[] lookup(TextSearchExpression expression) {
+        if (expression.isCaseSensitive()) {
+            return null;
+        }
+        String searchTerm = expression.getSearchText().toLowerCase();
+        return switch (expression.getMode()) {
+            case ALL_WORDS -> allWords(WHITESPACE.split(searchTerm));
+            case ANY_WORD -> anyWord(WHITESPACE.split(searchTerm));
+            case PREFIX -> prefix(searchTerm);
+            default -> null;
+        };
+    }
+
+    private int[] allWords(String[] words) {
+        int[] result = withText;
+        for (String word : words) {
+            result = intersect(result, itemsContaining(word.trim()));
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int[] anyWord(String[] words) {
+        BitSet union = new BitSet(itemCount);
+        for (String word : words) {
+            for (int id : itemsContaining(word.trim())) {
+                union.set(id);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    /**
+     * Items whose whole text starts with prefix, found by binary search over the sorted texts
+     */
+    private int[] prefix(String prefix) {
+        int low = 0;
+        int high = byText.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (texts[byText[mid]].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        IdList matches = new IdList();
+        for (int i = low; i < byText.length && texts[byText[i]].startsWith(prefix); i++) {
+            matches.add(byText[i]);
+        }
+        int[] ids = matches.toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Items with a term containing word; every item with text when word is empty
+     */
+    private int[] itemsContaining(String word) {
+        if (word.isEmpty()) {
+            return withText;
+        }
+        int[] cached = wordCache.get(word);
+        if (cached != null) {
+            return cached;
+        }
+
+        Integer exact = termIds.get(word);
+        List<int[]> lists = new ArrayList<>();
+        for (int t = 0; t < terms.length; t++) {
+            if (terms[t].contains(word)) {
+                lists.add(postings[t]);
+            }
+        }
+        int[] ids;
+        if (lists.size() == 1 && exact != null) {
+            ids = postings[exact]; // the common case: the word is a term and no longer term contains it
+        } else {
+            BitSet union = new BitSet(itemCount);
+            for (int[] list : lists) {
+                for (int id : list) {
+                    union.set(id);
+                }
+            }
+            ids = union.stream().toArray();
+        }
+
+        if (wordCache.size() >= MAX_CACHED_WORDS) {
+            wordCache.clear();
+        }
+        wordCache.put(word, ids);
+        return ids;
+    }
+
+    /**
+     * Intersection of two ascending id arrays; walks the shorter one and binary-searches the longer
+     */
+    static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] result = new int[a.length];
+        int count = 0;
+        int from = 0;
+        for (int id : a) {
+            int position = Arrays.binarySearch(b, from, b.length, id);
+            if (position >= 0) {
+                result[count++] = id;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+                if (from == b.length) {
+                    break;
+                }
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * Growable list of ascending item ids; ignores a repeat of the last id
+     */
+    static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
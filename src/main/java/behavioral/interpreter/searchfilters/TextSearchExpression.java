@@ -144,6 +144,27 @@ public class TextSearchExpression implements SearchExpression {
         return dp[len1][len2];
     }
     
+    /**
+     * Gets the text being searched for.
+     */
+    public String getSearchText() {
+        return searchText;
+    }
+    
+    /**
+     * Gets the text matching strategy.
+     */
+    public TextSearchMode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Checks if matching is case-sensitive.
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+    
     @Override
     public String getQueryString() {
         String modeStr = switch (mode) {
@@ -0,0 +1,79 @@
+package creational.singleton.cachemanager;
+
+/**
+ * Cache entry wrapper with expiration time.
+ * Also acts as its own timer wheel node so scheduling an expiration allocates nothing.
+ * Reads never write to the entry; access frequency lives in the eviction policy's sketch.
+ */
+final class CacheEntry {
+    static final long NO_EXPIRATION = Long.MAX_VALUE;
+
+    private final String key;
+    private final Object value;
+    private final long expirationTime;
+    private final long creationTime;
+    private final String[] tags; // null when untagged
+    private int weight; // guarded by the cache's eviction lock
+
+    // Timer wheel links, guarded by the cache's eviction lock
+    CacheEntry previousInWheel;
+    CacheEntry nextInWheel;
+
+    CacheEntry(String key, Object value, long ttlMillis, long now, int weight, String[] tags) {
+        this.key = key;
+        this.value = value;
+        this.tags = tags;
+        this.weight = weight;
+        this.creationTime = now;
+        this.expirationTime = ttlMillis > 0 ? now + ttlMillis : NO_EXPIRATION;
+    }
+
+    /**
+     * Sentinel constructor for timer wheel buckets
+     */
+    CacheEntry() {
+        this(null, null, 0, 0, 0, null);
+        this.previousInWheel = this;
+        this.nextInWheel = this;
+    }
+
+    boolean isExpired(long now) {
+        return now > expirationTime;
+    }
+
+    boolean hasExpiration() {
+        return expirationTime != NO_EXPIRATION;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    String[] getTags() {
+        return tags;
+    }
+
+    long getExpirationTime() {
+        return expirationTime;
+    }
+
+    long getTtlMillis() {
+        return hasExpiration() ? expirationTime - creationTime : 0;
+    }
+
+    long getCreationTime() {
+        return creationTime;
+    }
+}
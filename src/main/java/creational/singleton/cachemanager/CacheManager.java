@@ -1,92 +1,161 @@
 package creational.singleton.cachemanager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * Singleton Cache Manager using Bill Pugh Singleton Pattern
  * Thread-safe caching system with TTL (Time To Live) support
+ * and O(1) size-based eviction delegated to a pluggable {@link EvictionPolicy}.
+ * Expiration is driven by a hierarchical {@link TimerWheel} and a coarse cached clock.
+ * Besides the default instance, named regions ({@link #region(String)}) give workloads
+ * their own capacity, TTL, eviction policy and statistics while sharing background threads.
  */
 public class CacheManager {
     
+    public static final String DEFAULT_REGION = "default";
+    
     // Bill Pugh singleton pattern - inner static helper class
     private static class CacheManagerHelper {
-        private static final CacheManager INSTANCE = new CacheManager();
+        private static final CacheManager INSTANCE = new CacheManager(DEFAULT_REGION);
     }
     
-    /**
-     * Cache entry wrapper with expiration time
-     */
-    private static class CacheEntry {
-        private final Object value;
-        private final long expirationTime;
-        private final long creationTime;
-        private volatile long lastAccessTime;
-        private final AtomicLong accessCount;
-        
-        CacheEntry(Object value, long ttlMillis) {
-            this.value = value;
-            this.creationTime = System.currentTimeMillis();
-            this.expirationTime = ttlMillis > 0 ? creationTime + ttlMillis : Long.MAX_VALUE;
-            this.lastAccessTime = creationTime;
-            this.accessCount = new AtomicLong(0);
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() > expirationTime;
-        }
-        
-        Object getValue() {
-            lastAccessTime = System.currentTimeMillis();
-            accessCount.incrementAndGet();
-            return value;
-        }
-        
-        long getLastAccessTime() {
-            return lastAccessTime;
-        }
-        
-        long getAccessCount() {
-            return accessCount.get();
-        }
+    // Background threads shared by every region, created on first use
+    private static class SharedExecutors {
+        private static final ScheduledExecutorService MAINTENANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "CacheManager-Maintenance");
+            t.setDaemon(true);
+            return t;
+        });
         
-        long getCreationTime() {
-            return creationTime;
-        }
+        // Refresh-ahead loads run on their own daemon threads so callers never wait for them
+        private static final ExecutorService REFRESH = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "CacheManager-Refresh");
+            t.setDaemon(true);
+            return t;
+        });
     }
     
+    private static final ConcurrentHashMap<String, CacheManager> REGIONS = new ConcurrentHashMap<>();
+    
+    // Memory pressure halves the capacity down to 10%, then it recovers by 10% per second
+    private static final double MIN_CAPACITY_FACTOR = 0.1;
+    private static final double MEMORY_RECOVERY_STEP = 0.1;
+    private static final long MEMORY_CHECK_TICKS = 1000 / CoarseClock.TICK_MILLIS;
+    private static final int WRITE_LOCK_STRIPES = 64;
+    
+    private final String name;
     private final ConcurrentHashMap<String, CacheEntry> cache;
-    private final ScheduledExecutorService cleanupExecutor;
-    private final AtomicLong hitCount;
-    private final AtomicLong missCount;
+    private final ScheduledFuture<?> maintenanceTask;
+    private final Thread shutdownHook;
+    private final CoarseClock clock;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    
+    // Striped counters: threads hammering the same key do not bounce one shared cache line
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder loadSuccessCount;
+    private final LongAdder loadFailureCount;
+    private final LongAdder[] removalCounts; // indexed by RemovalCause ordinal
+    private final LatencyHistogram getLatency;
+    private final LatencyHistogram loadLatency;
+    
+    // One future per key being loaded, shared by every caller waiting for that key
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loadsInFlight;
+    
+    // Guards every structural change so the map, the eviction policy and the timer wheel stay in sync
+    private final ReentrantLock evictionLock;
+    private final ReadBuffer readBuffer; // reads not yet replayed into the eviction policy
+    private final TimerWheel timerWheel;
+    private EvictionPolicy evictionPolicy;
+    private long weightedSize;
+    
+    // Secondary indexes for bulk invalidation, guarded by the eviction lock
+    private final Map<String, Set<String>> tagIndex;
+    private final KeyTrie keyTrie;
+    
+    // Optional backing store; write-behind when the queue is set, write-through otherwise
+    private volatile CacheWriter cacheWriter;
+    private volatile WriteBehindQueue writeBehindQueue;
+    private final ReentrantLock[] writeLocks;
+    
+    // Memory pressure adaptation shrinks the capacity target while the heap is under pressure
+    private final Runnable memoryPressureListener;
+    private volatile double capacityFactor = 1.0;
+    private volatile boolean memoryPressureAdaptive;
+    private long maintenanceTicks;
+    
+    // Written on shutdown when set, so the next start can warm up from it
+    private volatile Path shutdownSnapshotPath;
     
     // Default configurations
     private long defaultTtlMillis = 300000; // 5 minutes
     private int maxCacheSize = 1000;
+    private long maximumWeight; // only used when a weigher is configured
+    private Weigher weigher;    // null means every entry weighs 1
     private boolean enableStatistics = true;
+    private double refreshAheadFactor = 0.8; // refresh once 80% of the TTL has elapsed
     
     // Private constructor prevents external instantiation
-    private CacheManager() {
+    private CacheManager(String name) {
+        this.name = name;
         this.cache = new ConcurrentHashMap<>();
-        this.hitCount = new AtomicLong(0);
-        this.missCount = new AtomicLong(0);
-        
-        // Create cleanup executor with daemon thread
-        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "CacheManager-Cleanup");
-            t.setDaemon(true);
-            return t;
-        });
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.loadSuccessCount = new LongAdder();
+        this.loadFailureCount = new LongAdder();
+        this.removalCounts = new LongAdder[RemovalCause.values().length];
+        for (int i = 0; i < removalCounts.length; i++) {
+            removalCounts[i] = new LongAdder();
+        }
+        this.getLatency = new LatencyHistogram();
+        this.loadLatency = new LatencyHistogram();
+        this.loadsInFlight = new ConcurrentHashMap<>();
+        this.clock = new CoarseClock();
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer();
+        this.timerWheel = new TimerWheel(clock.millis());
+        this.tagIndex = new HashMap<>();
+        this.keyTrie = new KeyTrie();
+        this.evictionPolicy = new WindowTinyLfuEvictionPolicy();
+        this.evictionPolicy.setMaximum(capacity());
+        this.memoryPressureListener = this::onMemoryPressure;
+        this.writeLocks = new ReentrantLock[WRITE_LOCK_STRIPES];
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
         
-        // Schedule periodic cleanup every 30 seconds
-        startCleanupTask();
+        // Tick the clock and advance the timer wheel every few milliseconds
+        this.maintenanceTask = startMaintenanceTask();
         
-        // Add shutdown hook for cleanup
-        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        // Add shutdown hook for cleanup; shutdown() removes it so a dropped region can be collected
+        this.shutdownHook = new Thread(this::shutdown, "CacheManager-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
     
     /**
@@ -97,10 +166,84 @@ public class CacheManager {
     }
     
     /**
-     * Start the periodic cleanup task
+     * Get the named cache region, creating it with default settings on first use.
+     * Each region has its own capacity, TTL, eviction policy and statistics;
+     * "default" is the singleton instance.
      */
-    private void startCleanupTask() {
-        cleanupExecutor.scheduleAtFixedRate(this::cleanupExpiredEntries, 30, 30, TimeUnit.SECONDS);
+    public static CacheManager region(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Region name cannot be empty");
+        }
+        if (DEFAULT_REGION.equals(name)) {
+            return getInstance();
+        }
+        return REGIONS.computeIfAbsent(name, CacheManager::new);
+    }
+    
+    /**
+     * Names of the regions created so far, excluding the default instance
+     */
+    public static Set<String> getRegionNames() {
+        return Collections.unmodifiableSet(REGIONS.keySet());
+    }
+    
+    /**
+     * Shut down a named region and forget it; the next region(name) call starts a fresh one
+     */
+    public static boolean dropRegion(String name) {
+        CacheManager region = REGIONS.get(name);
+        if (region == null) {
+            return false;
+        }
+        region.shutdown();
+        return true;
+    }
+    
+    /**
+     * Region name of this cache
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Start the periodic maintenance task on the shared scheduler; a run that throws
+     * suppresses the rest, so the clock is switched to reading the OS time first
+     */
+    private ScheduledFuture<?> startMaintenanceTask() {
+        return SharedExecutors.MAINTENANCE.scheduleAtFixedRate(() -> {
+            try {
+                performMaintenance();
+            } catch (RuntimeException | Error e) {
+                clock.stop();
+                throw e;
+            }
+        }, CoarseClock.TICK_MILLIS, CoarseClock.TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Refresh the cached clock, replay buffered reads and expire due entries; skipped if a writer holds the lock.
+     * About once a second the heap is re-checked: the capacity keeps shrinking while the
+     * pressure lasts (threshold notifications only fire once per crossing) and grows back after.
+     */
+    private void performMaintenance() {
+        long now = clock.tick();
+        if (evictionLock.tryLock()) {
+            try {
+                readBuffer.drainTo(evictionPolicy);
+                timerWheel.advance(now, this::expire);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        
+        if (++maintenanceTicks % MEMORY_CHECK_TICKS == 0 && memoryPressureAdaptive) {
+            if (MemoryPressureMonitor.getInstance().isUnderPressure()) {
+                onMemoryPressure();
+            } else if (capacityFactor < 1.0) {
+                adjustCapacityFactor(Math.min(1.0, capacityFactor + MEMORY_RECOVERY_STEP));
+            }
+        }
     }
     
     /**
@@ -111,19 +254,64 @@ public class CacheManager {
     }
     
     /**
-     * Put a value in cache with specific TTL
+     * Put a value in cache with specific TTL and optional tags for invalidateByTag,
+     * passing it on to the cache writer if one is set
      */
-    public void put(String key, Object value, long ttlMillis) {
+    public void put(String key, Object value, long ttlMillis, String... tags) {
         if (key == null || value == null) {
             throw new IllegalArgumentException("Key and value cannot be null");
         }
+        String[] entryTags = normalizeTags(tags);
         
-        // Check cache size limit
-        if (cache.size() >= maxCacheSize && !cache.containsKey(key)) {
-            evictLeastRecentlyUsed();
+        CacheWriter writer = cacheWriter;
+        if (writer == null) {
+            putInternal(key, value, ttlMillis, entryTags);
+            return;
         }
         
-        cache.put(key, new CacheEntry(value, ttlMillis));
+        // Per-key stripe keeps the store and the cache in the same order for concurrent writers
+        ReentrantLock stripe = writeLockFor(key);
+        stripe.lock();
+        try {
+            WriteBehindQueue queue = writeBehindQueue;
+            if (queue == null) {
+                writer.write(key, value); // write-through: a store failure leaves the cache untouched
+                putInternal(key, value, ttlMillis, entryTags);
+            } else {
+                putInternal(key, value, ttlMillis, entryTags);
+                queue.enqueueWrite(key, value);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+    
+    private void putInternal(String key, Object value, long ttlMillis, String[] tags) {
+        int weight = weigh(key, value);
+        
+        evictionLock.lock();
+        try {
+            CacheEntry entry = new CacheEntry(key, value, ttlMillis, clock.millis(), weight, tags);
+            CacheEntry previous = cache.put(key, entry);
+            if (previous == null) {
+                evictionPolicy.recordInsert(key, weight);
+                weightedSize += weight;
+                keyTrie.add(key);
+            } else {
+                timerWheel.deschedule(previous);
+                unindexTags(previous);
+                evictionPolicy.recordUpdate(key, weight);
+                weightedSize += weight - previous.getWeight();
+                removalCounts[RemovalCause.REPLACED.ordinal()].increment();
+            }
+            timerWheel.schedule(entry);
+            indexTags(entry);
+            
+            // The policy may reject the new entry itself if it is less popular than the victim
+            evictIfNeeded(RemovalCause.SIZE);
+        } finally {
+            evictionLock.unlock();
+        }
     }
     
     /**
@@ -131,6 +319,136 @@ public class CacheManager {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(String key) {
+        CacheEntry entry = getEntry(key);
+        return entry == null ? null : (T) entry.getValue();
+    }
+    
+    /**
+     * Get a value from cache, loading it on a miss.
+     * Concurrent callers missing on the same key share a single load (single-flight),
+     * and hits close to expiry trigger an asynchronous refresh-ahead.
+     */
+    public <T> T getOrLoad(String key, Function<String, ? extends T> loader) {
+        if (key == null || loader == null) {
+            throw new IllegalArgumentException("Key and loader cannot be null");
+        }
+        
+        CacheEntry entry = getEntry(key);
+        if (entry != null) {
+            refreshIfNeeded(key, entry, loader);
+            return castValue(entry.getValue());
+        }
+        
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return castValue(awaitLoad(key, inFlight));
+        }
+        
+        try {
+            Object value = load(key, loader);
+            if (value != null) {
+                putLoaded(key, value, defaultTtlMillis, null);
+            }
+            future.complete(value);
+            return castValue(value);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadsInFlight.remove(key, future);
+        }
+    }
+    
+    /**
+     * Get several values from cache, loading all misses with one bulk call.
+     * Keys already being loaded by another caller are awaited instead of loaded again.
+     * Keys the loader does not return are absent from the result.
+     */
+    public <T> Map<String, T> getAllOrLoad(Collection<String> keys,
+                                           Function<Set<String>, ? extends Map<String, ? extends T>> bulkLoader) {
+        if (keys == null || bulkLoader == null) {
+            throw new IllegalArgumentException("Keys and loader cannot be null");
+        }
+        
+        Map<String, Object> found = new HashMap<>();
+        Map<String, CompletableFuture<Object>> claimed = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Object>> awaited = new LinkedHashMap<>();
+        
+        for (String key : new LinkedHashSet<>(keys)) {
+            CacheEntry entry = getEntry(key);
+            if (entry != null) {
+                refreshIfNeeded(key, entry, k -> bulkLoader.apply(Collections.singleton(k)).get(k));
+                found.put(key, entry.getValue());
+                continue;
+            }
+            
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(key, future);
+            if (inFlight == null) {
+                claimed.put(key, future);
+            } else {
+                awaited.put(key, inFlight);
+            }
+        }
+        
+        if (!claimed.isEmpty()) {
+            try {
+                Map<String, ? extends T> loaded = load(Collections.unmodifiableSet(claimed.keySet()), bulkLoader);
+                for (Map.Entry<String, CompletableFuture<Object>> claim : claimed.entrySet()) {
+                    Object value = loaded == null ? null : loaded.get(claim.getKey());
+                    if (value != null) {
+                        putLoaded(claim.getKey(), value, defaultTtlMillis, null);
+                        found.put(claim.getKey(), value);
+                    }
+                    claim.getValue().complete(value);
+                }
+            } catch (RuntimeException | Error e) {
+                claimed.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                claimed.forEach(loadsInFlight::remove);
+            }
+        }
+        
+        for (Map.Entry<String, CompletableFuture<Object>> wait : awaited.entrySet()) {
+            Object value = awaitLoad(wait.getKey(), wait.getValue());
+            if (value != null) {
+                found.put(wait.getKey(), value);
+            }
+        }
+        
+        Map<String, T> result = new LinkedHashMap<>();
+        for (String key : keys) {
+            Object value = found.get(key);
+            if (value != null) {
+                result.put(key, castValue(value));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Look up a live entry, recording hit/miss statistics, lookup latency and the access
+     */
+    private CacheEntry getEntry(String key) {
+        if (!enableStatistics) {
+            return lookup(key);
+        }
+        
+        long start = System.nanoTime();
+        CacheEntry entry = lookup(key);
+        getLatency.record(System.nanoTime() - start);
+        
+        if (entry == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return entry;
+    }
+    
+    private CacheEntry lookup(String key) {
         if (key == null) {
             return null;
         }
@@ -138,32 +456,220 @@ public class CacheManager {
         CacheEntry entry = cache.get(key);
         
         if (entry == null) {
-            if (enableStatistics) {
-                missCount.incrementAndGet();
-            }
             return null;
         }
         
-        if (entry.isExpired()) {
-            cache.remove(key);
-            if (enableStatistics) {
-                missCount.incrementAndGet();
-            }
+        if (entry.isExpired(clock.millis())) {
+            removeExpired(key, entry);
             return null;
         }
         
-        if (enableStatistics) {
-            hitCount.incrementAndGet();
+        // Reads are buffered, not applied: only a reader that fills its stripe tries the lock to drain it
+        if (readBuffer.offer(key) && evictionLock.tryLock()) {
+            try {
+                readBuffer.drainTo(evictionPolicy);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        
+        return entry;
+    }
+    
+    /**
+     * Start an asynchronous reload once an entry has used up the refresh-ahead share of its TTL
+     */
+    private void refreshIfNeeded(String key, CacheEntry entry, Function<String, ?> loader) {
+        long ttlMillis = entry.getTtlMillis();
+        if (refreshAheadFactor <= 0 || ttlMillis <= 0) {
+            return;
+        }
+        
+        long age = clock.millis() - entry.getCreationTime();
+        if (age < ttlMillis * refreshAheadFactor) {
+            return;
+        }
+        
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (loadsInFlight.putIfAbsent(key, future) != null) {
+            return;
         }
         
-        return (T) entry.getValue();
+        try {
+            SharedExecutors.REFRESH.execute(() -> {
+                try {
+                    Object value = load(key, loader);
+                    if (value != null) {
+                        putLoaded(key, value, ttlMillis, entry);
+                    }
+                    future.complete(value);
+                } catch (RuntimeException | Error e) {
+                    // The current value stays in place until it expires
+                    future.completeExceptionally(e);
+                } finally {
+                    loadsInFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loadsInFlight.remove(key, future);
+            future.complete(null);
+        }
+    }
+    
+    /**
+     * Run a loader, recording load statistics
+     */
+    private <K, V> V load(K key, Function<K, V> loader) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            loadSuccessCount.increment();
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            throw e;
+        } finally {
+            loadLatency.record(System.nanoTime() - start);
+        }
     }
     
     /**
-     * Remove a value from cache
+     * Wait for a load started by another caller, rethrowing its failure
+     */
+    private Object awaitLoad(String key, CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Failed to load key: " + key, e.getCause());
+        }
+    }
+    
+    /**
+     * Store a loaded value unless the entry changed while the load was running
+     */
+    private void putLoaded(String key, Object value, long ttlMillis, CacheEntry expected) {
+        evictionLock.lock();
+        try {
+            CacheEntry current = cache.get(key);
+            boolean unchanged = (current == expected)
+                    || (expected == null && current.isExpired(clock.millis()));
+            if (unchanged) {
+                // Loaded values came from the store, so they are not written back; a refresh keeps the tags
+                putInternal(key, value, ttlMillis, expected == null ? null : expected.getTags());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T castValue(Object value) {
+        return (T) value;
+    }
+    
+    /**
+     * Remove a value from cache, deleting it from the cache writer's store if one is set
      */
     public boolean remove(String key) {
-        return cache.remove(key) != null;
+        CacheWriter writer = cacheWriter;
+        if (writer == null || key == null) {
+            return removeInternal(key);
+        }
+        
+        ReentrantLock stripe = writeLockFor(key);
+        stripe.lock();
+        try {
+            WriteBehindQueue queue = writeBehindQueue;
+            if (queue == null) {
+                writer.delete(key);
+                return removeInternal(key);
+            }
+            boolean removed = removeInternal(key);
+            queue.enqueueDelete(key);
+            return removed;
+        } finally {
+            stripe.unlock();
+        }
+    }
+    
+    private boolean removeInternal(String key) {
+        evictionLock.lock();
+        try {
+            return discard(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Remove every entry put with the given tag. Only the cache is invalidated; the
+     * cache writer's store is left alone. Costs time proportional to the matching entries.
+     */
+    public int invalidateByTag(String tag) {
+        if (tag == null) {
+            throw new IllegalArgumentException("Tag cannot be null");
+        }
+        evictionLock.lock();
+        try {
+            Set<String> keys = tagIndex.get(tag);
+            if (keys == null) {
+                return 0;
+            }
+            int removed = 0;
+            // Copy first: discarding an entry removes it from this very set
+            for (String key : keys.toArray(new String[0])) {
+                if (discard(key)) {
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Remove every entry whose key starts with prefix, using the key trie instead of a
+     * full scan. Only the cache is invalidated; the cache writer's store is left alone.
+     */
+    public int invalidateByPrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        evictionLock.lock();
+        try {
+            int removed = 0;
+            for (String key : keyTrie.keysWithPrefix(prefix)) {
+                if (discard(key)) {
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Explicitly remove one entry; must be called while holding the eviction lock
+     */
+    private boolean discard(String key) {
+        CacheEntry removed = cache.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        timerWheel.deschedule(removed);
+        evictionPolicy.recordRemoval(key);
+        weightedSize -= removed.getWeight();
+        unindex(removed);
+        removalCounts[RemovalCause.EXPLICIT.ordinal()].increment();
+        return true;
     }
     
     /**
@@ -175,8 +681,8 @@ public class CacheManager {
             return false;
         }
         
-        if (entry.isExpired()) {
-            cache.remove(key);
+        if (entry.isExpired(clock.millis())) {
+            removeExpired(key, entry);
             return false;
         }
         
@@ -187,9 +693,30 @@ public class CacheManager {
      * Clear all entries from cache
      */
     public void clear() {
-        cache.clear();
-        hitCount.set(0);
-        missCount.set(0);
+        evictionLock.lock();
+        try {
+            cache.clear();
+            evictionPolicy.clear();
+            timerWheel.clear();
+            tagIndex.clear();
+            keyTrie.clear();
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+        resetStatistics();
+    }
+    
+    private void resetStatistics() {
+        hitCount.reset();
+        missCount.reset();
+        loadSuccessCount.reset();
+        loadFailureCount.reset();
+        for (LongAdder removalCount : removalCounts) {
+            removalCount.reset();
+        }
+        getLatency.reset();
+        loadLatency.reset();
     }
     
     /**
@@ -210,22 +737,44 @@ public class CacheManager {
      * Get cache hit rate (0.0 to 1.0)
      */
     public double getHitRate() {
-        long hits = hitCount.get();
-        long misses = missCount.get();
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
         long total = hits + misses;
         
         return total == 0 ? 0.0 : (double) hits / total;
     }
     
     /**
-     * Get cache statistics
+     * Weighted size read under the eviction lock that guards it, so it is never stale or torn
+     */
+    private long currentWeightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Get cache statistics, including latency percentiles and removals by cause
      */
     public CacheStatistics getStatistics() {
+        long[] removals = new long[removalCounts.length];
+        for (int i = 0; i < removals.length; i++) {
+            removals[i] = removalCounts[i].sum();
+        }
+        
         return new CacheStatistics(
                 cache.size(),
-                hitCount.get(),
-                missCount.get(),
-                getHitRate()
+                currentWeightedSize(),
+                hitCount.sum(),
+                missCount.sum(),
+                loadSuccessCount.sum(),
+                loadFailureCount.sum(),
+                removals,
+                getLatency.snapshot(),
+                loadLatency.snapshot()
         );
     }
     
@@ -237,25 +786,229 @@ public class CacheManager {
     }
     
     /**
-     * Configure maximum cache size
+     * Configure when getOrLoad refreshes a hit asynchronously, as a fraction of the entry's TTL.
+     * 0 disables refresh-ahead.
+     */
+    public void setRefreshAheadFactor(double factor) {
+        if (factor < 0 || factor >= 1) {
+            throw new IllegalArgumentException("Refresh-ahead factor must be in [0, 1)");
+        }
+        this.refreshAheadFactor = factor;
+    }
+    
+    /**
+     * Configure maximum cache size, counting entries (turns off weight-based capacity)
      */
     public void setMaxCacheSize(int maxSize) {
-        this.maxCacheSize = maxSize;
+        evictionLock.lock();
+        try {
+            this.maxCacheSize = maxSize;
+            if (weigher != null) {
+                this.weigher = null;
+                this.maximumWeight = 0;
+                reweighAll();
+            } else {
+                evictionPolicy.setMaximum(capacity());
+            }
+            
+            // Evict entries if current size exceeds new limit
+            evictIfNeeded(RemovalCause.SIZE);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Configure capacity as a total weight (typically bytes) computed by the weigher.
+     * Replaces the entry-count limit of setMaxCacheSize.
+     */
+    public void setMaximumWeight(long maxWeight, Weigher weigher) {
+        if (maxWeight <= 0 || weigher == null) {
+            throw new IllegalArgumentException("Maximum weight must be positive and weigher cannot be null");
+        }
         
-        // Evict entries if current size exceeds new limit
-        while (cache.size() > maxSize) {
-            evictLeastRecentlyUsed();
+        evictionLock.lock();
+        try {
+            this.maximumWeight = maxWeight;
+            this.weigher = weigher;
+            reweighAll();
+            evictIfNeeded(RemovalCause.SIZE);
+        } finally {
+            evictionLock.unlock();
         }
     }
     
+    /**
+     * Shrink the capacity target whenever a heap pool crosses the given fraction of its maximum
+     * (as reported by MemoryPoolMXBean threshold notifications), and grow it back once the pressure is gone
+     */
+    public void enableMemoryPressureAdaptation(double heapThresholdFraction) {
+        MemoryPressureMonitor monitor = MemoryPressureMonitor.getInstance();
+        monitor.setThreshold(heapThresholdFraction);
+        
+        evictionLock.lock();
+        try {
+            if (!memoryPressureAdaptive) {
+                monitor.addListener(memoryPressureListener);
+                memoryPressureAdaptive = true;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Stop reacting to heap pressure and restore the full capacity
+     */
+    public void disableMemoryPressureAdaptation() {
+        evictionLock.lock();
+        try {
+            MemoryPressureMonitor.getInstance().removeListener(memoryPressureListener);
+            memoryPressureAdaptive = false;
+        } finally {
+            evictionLock.unlock();
+        }
+        adjustCapacityFactor(1.0);
+    }
+    
+    /**
+     * Replace the eviction policy, replaying the current keys into it
+     */
+    public void setEvictionPolicy(EvictionPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null");
+        }
+        
+        evictionLock.lock();
+        try {
+            policy.setMaximum(capacity());
+            for (CacheEntry entry : cache.values()) {
+                policy.recordInsert(entry.getKey(), entry.getWeight());
+            }
+            this.evictionPolicy = policy;
+            evictIfNeeded(RemovalCause.SIZE);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Write every put and remove synchronously to the store before updating the cache
+     */
+    public void enableWriteThrough(CacheWriter writer) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Cache writer cannot be null");
+        }
+        disableCacheWriter();
+        this.cacheWriter = writer;
+    }
+    
+    /**
+     * Update the cache immediately and write to the store asynchronously.
+     * Repeated updates to a key are coalesced, flushes happen in batches of up to
+     * batchSize or every flushIntervalMillis, and failed writes are retried up to maxRetries times.
+     */
+    public void enableWriteBehind(CacheWriter writer, int batchSize, long flushIntervalMillis, int maxRetries) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Cache writer cannot be null");
+        }
+        disableCacheWriter();
+        this.writeBehindQueue = new WriteBehindQueue(writer, batchSize, flushIntervalMillis, maxRetries);
+        this.cacheWriter = writer;
+    }
+    
+    /**
+     * Detach the cache writer, flushing any pending write-behind updates first
+     */
+    public void disableCacheWriter() {
+        WriteBehindQueue queue = writeBehindQueue;
+        cacheWriter = null;
+        writeBehindQueue = null;
+        if (queue != null) {
+            queue.close();
+        }
+    }
+    
+    /**
+     * Synchronously write all pending write-behind updates to the store
+     */
+    public void flushWrites() {
+        WriteBehindQueue queue = writeBehindQueue;
+        if (queue != null) {
+            queue.flush();
+        }
+    }
+    
+    /**
+     * Write every live entry with its remaining TTL and access frequency to a snapshot file.
+     * Values that are not Serializable are skipped. Returns the number of entries written.
+     */
+    public int saveSnapshot(Path path) throws IOException {
+        List<CacheSnapshot.Record> records = new ArrayList<>(cache.size());
+        evictionLock.lock();
+        try {
+            long now = clock.millis();
+            for (CacheEntry entry : cache.values()) {
+                if (entry.isExpired(now)) {
+                    continue;
+                }
+                long remainingTtl = entry.hasExpiration() ? Math.max(1, entry.getExpirationTime() - now) : 0;
+                records.add(new CacheSnapshot.Record(entry.getKey(), entry.getValue(), remainingTtl,
+                        evictionPolicy.frequency(entry.getKey()), entry.getTags()));
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        // Serialization and I/O happen outside the lock
+        return CacheSnapshot.write(path, records);
+    }
+    
+    /**
+     * Warm the cache from a snapshot written by saveSnapshot. Values are decoded in parallel,
+     * then inserted coldest first with their access frequency replayed, so the eviction policy
+     * keeps the hot working set if the snapshot does not fit. Entries that expired while the
+     * process was down are dropped, and restored entries are not passed to the cache writer.
+     * Returns the number of unexpired entries read from the snapshot, or 0 if the file does not exist.
+     */
+    public int loadSnapshot(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        List<CacheSnapshot.Record> records = new ArrayList<>(CacheSnapshot.read(path));
+        records.sort(Comparator.comparingInt(record -> record.frequency));
+        
+        for (CacheSnapshot.Record record : records) {
+            putInternal(record.key, record.value, record.remainingTtlMillis, record.tags);
+            evictionLock.lock();
+            try {
+                if (cache.containsKey(record.key)) {
+                    for (int i = 0; i < record.frequency; i++) {
+                        evictionPolicy.recordAccess(record.key);
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return records.size();
+    }
+    
+    /**
+     * Save a snapshot to path when the cache shuts down; null disables it
+     */
+    public void setShutdownSnapshotPath(Path path) {
+        this.shutdownSnapshotPath = path;
+    }
+    
     /**
      * Enable or disable statistics collection
      */
     public void setStatisticsEnabled(boolean enabled) {
         this.enableStatistics = enabled;
         if (!enabled) {
-            hitCount.set(0);
-            missCount.set(0);
+            hitCount.reset();
+            missCount.reset();
+            getLatency.reset();
         }
     }
     
@@ -263,33 +1016,172 @@ public class CacheManager {
      * Get all cache keys
      */
     public java.util.Set<String> getKeys() {
-        return cache.keySet();
+        return Collections.unmodifiableSet(cache.keySet());
     }
     
     /**
-     * Cleanup expired entries
+     * Cleanup expired entries; only the timer wheel buckets that became due are visited
      */
     private void cleanupExpiredEntries() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        long now = clock.tick();
+        evictionLock.lock();
+        try {
+            timerWheel.advance(now, this::expire);
+        } finally {
+            evictionLock.unlock();
+        }
     }
     
     /**
-     * Evict least recently used entry
+     * Timer wheel callback; must be called while holding the eviction lock
      */
-    private void evictLeastRecentlyUsed() {
-        if (cache.isEmpty()) {
-            return;
+    private boolean expire(CacheEntry entry) {
+        if (cache.remove(entry.getKey(), entry)) {
+            evictionPolicy.recordRemoval(entry.getKey());
+            weightedSize -= entry.getWeight();
+            unindex(entry);
+            removalCounts[RemovalCause.EXPIRED.ordinal()].increment();
         }
-        
-        String lruKey = cache.entrySet().stream()
-                .min((e1, e2) -> Long.compare(
-                        e1.getValue().getLastAccessTime(),
-                        e2.getValue().getLastAccessTime()))
-                .map(Map.Entry::getKey)
-                .orElse(null);
-        
-        if (lruKey != null) {
-            cache.remove(lruKey);
+        return true;
+    }
+    
+    /**
+     * Remove an expired entry found on read unless it was already replaced by a fresh one
+     */
+    private void removeExpired(String key, CacheEntry entry) {
+        evictionLock.lock();
+        try {
+            if (cache.get(key) == entry) {
+                timerWheel.deschedule(entry);
+                expire(entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * Evict entries chosen by the policy until the weighted size fits; O(1) per eviction.
+     * Must be called while holding the eviction lock.
+     */
+    private void evictIfNeeded(RemovalCause cause) {
+        long capacity = capacity();
+        if (weightedSize > capacity) {
+            readBuffer.drainTo(evictionPolicy); // let the policy see recent reads before it picks a victim
+        }
+        while (weightedSize > capacity) {
+            String victim = evictionPolicy.selectVictim();
+            if (victim == null) {
+                return;
+            }
+            CacheEntry removed = cache.remove(victim);
+            if (removed != null) {
+                timerWheel.deschedule(removed);
+                weightedSize -= removed.getWeight();
+                unindex(removed);
+                removalCounts[cause.ordinal()].increment();
+            }
+        }
+    }
+    
+    private static String[] normalizeTags(String[] tags) {
+        if (tags == null || tags.length == 0) {
+            return null;
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String tag : tags) {
+            if (tag == null) {
+                throw new IllegalArgumentException("Tags cannot be null");
+            }
+            unique.add(tag);
+        }
+        return unique.toArray(new String[0]);
+    }
+    
+    private void indexTags(CacheEntry entry) {
+        String[] tags = entry.getTags();
+        if (tags != null) {
+            for (String tag : tags) {
+                tagIndex.computeIfAbsent(tag, t -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+    }
+    
+    private void unindexTags(CacheEntry entry) {
+        String[] tags = entry.getTags();
+        if (tags != null) {
+            for (String tag : tags) {
+                Set<String> keys = tagIndex.get(tag);
+                if (keys != null && keys.remove(entry.getKey()) && keys.isEmpty()) {
+                    tagIndex.remove(tag);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drop a removed entry from the tag index and key trie; must be called while holding the eviction lock
+     */
+    private void unindex(CacheEntry entry) {
+        unindexTags(entry);
+        keyTrie.remove(entry.getKey());
+    }
+    
+    private ReentrantLock writeLockFor(String key) {
+        int hash = key.hashCode();
+        return writeLocks[(hash ^ (hash >>> 16)) & (writeLocks.length - 1)];
+    }
+    
+    /**
+     * Current capacity target in weight units, reduced while the heap is under pressure
+     */
+    private long capacity() {
+        long configured = (weigher == null) ? maxCacheSize : maximumWeight;
+        return Math.max(1, (long) (configured * capacityFactor));
+    }
+    
+    private int weigh(String key, Object value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weigher returned a negative weight for key: " + key);
+        }
+        return weight;
+    }
+    
+    /**
+     * Recompute every weight after the capacity mode changed; must hold the eviction lock
+     */
+    private void reweighAll() {
+        evictionPolicy.clear();
+        evictionPolicy.setMaximum(capacity());
+        weightedSize = 0;
+        for (CacheEntry entry : cache.values()) {
+            int weight = weigh(entry.getKey(), entry.getValue());
+            entry.setWeight(weight);
+            weightedSize += weight;
+            evictionPolicy.recordInsert(entry.getKey(), weight);
+        }
+    }
+    
+    /**
+     * Heap pool threshold crossed: halve the capacity target and evict down to it
+     */
+    private void onMemoryPressure() {
+        adjustCapacityFactor(Math.max(MIN_CAPACITY_FACTOR, capacityFactor * 0.5));
+    }
+    
+    private void adjustCapacityFactor(double factor) {
+        evictionLock.lock();
+        try {
+            RemovalCause cause = factor < capacityFactor ? RemovalCause.MEMORY_PRESSURE : RemovalCause.SIZE;
+            capacityFactor = factor;
+            evictionPolicy.setMaximum(capacity());
+            evictIfNeeded(cause);
+        } finally {
+            evictionLock.unlock();
         }
     }
     
@@ -298,11 +1190,35 @@ public class CacheManager {
      */
     public Map<String, Object> getCacheInfo() {
         Map<String, Object> info = new ConcurrentHashMap<>();
+        info.put("region", name);
         info.put("size", cache.size());
         info.put("maxSize", maxCacheSize);
+        evictionLock.lock();
+        try {
+            info.put("weightedSize", weightedSize);
+            info.put("tagCount", tagIndex.size()); // a plain HashMap, only safe to read under the lock
+        } finally {
+            evictionLock.unlock();
+        }
+        info.put("maximumWeight", maximumWeight);
+        info.put("capacityFactor", capacityFactor);
+        info.put("memoryPressureAdaptive", memoryPressureAdaptive);
         info.put("defaultTtlMillis", defaultTtlMillis);
-        info.put("hitCount", hitCount.get());
-        info.put("missCount", missCount.get());
+        info.put("hitCount", hitCount.sum());
+        info.put("missCount", missCount.sum());
+        for (RemovalCause cause : RemovalCause.values()) {
+            info.put("removalCount." + cause.name().toLowerCase(), removalCounts[cause.ordinal()].sum());
+        }
+        info.put("loadSuccessCount", loadSuccessCount.sum());
+        info.put("loadFailureCount", loadFailureCount.sum());
+        info.put("loadsInFlight", loadsInFlight.size());
+        info.put("refreshAheadFactor", refreshAheadFactor);
+        info.put("evictionPolicy", evictionPolicy.toString());
+        WriteBehindQueue queue = writeBehindQueue;
+        info.put("writeMode", cacheWriter == null ? "none" : (queue == null ? "write-through" : "write-behind"));
+        if (queue != null) {
+            queue.getStatistics().forEach((name, value) -> info.put("writeBehind." + name, value));
+        }
         info.put("hitRate", getHitRate());
         info.put("statisticsEnabled", enableStatistics);
         return info;
@@ -319,15 +1235,30 @@ public class CacheManager {
      * Shutdown cache manager and cleanup resources
      */
     public void shutdown() {
-        cleanupExecutor.shutdown();
+        if (!shutDown.compareAndSet(false, true)) {
+            return;
+        }
+        REGIONS.remove(name, this);
         try {
-            if (!cleanupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                cleanupExecutor.shutdownNow();
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is already shutting down, possibly through this very hook
+        }
+        MemoryPressureMonitor.getInstance().removeListener(memoryPressureListener);
+        disableCacheWriter();
+        Path snapshotPath = shutdownSnapshotPath;
+        if (snapshotPath != null) {
+            try {
+                int saved = saveSnapshot(snapshotPath);
+                System.out.println("CacheManager: saved " + saved + " entries to " + snapshotPath);
+            } catch (IOException e) {
+                System.err.println("CacheManager: failed to save snapshot: " + e.getMessage());
             }
-        } catch (InterruptedException e) {
-            cleanupExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+        
+        // The shared threads keep serving the other regions; only this region's task stops
+        clock.stop();
+        maintenanceTask.cancel(false);
         clear();
     }
     
@@ -342,26 +1273,66 @@ public class CacheManager {
      */
     public static class CacheStatistics {
         private final int size;
+        private final long weightedSize;
         private final long hitCount;
         private final long missCount;
         private final double hitRate;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long[] removalCounts;
+        private final LatencyHistogram.Snapshot getLatency;
+        private final LatencyHistogram.Snapshot loadLatency;
         
-        CacheStatistics(int size, long hitCount, long missCount, double hitRate) {
+        CacheStatistics(int size, long weightedSize, long hitCount, long missCount,
+                        long loadSuccessCount, long loadFailureCount, long[] removalCounts,
+                        LatencyHistogram.Snapshot getLatency, LatencyHistogram.Snapshot loadLatency) {
             this.size = size;
+            this.weightedSize = weightedSize;
             this.hitCount = hitCount;
             this.missCount = missCount;
-            this.hitRate = hitRate;
+            this.hitRate = (hitCount + missCount) == 0 ? 0.0 : (double) hitCount / (hitCount + missCount);
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.removalCounts = removalCounts;
+            this.getLatency = getLatency;
+            this.loadLatency = loadLatency;
         }
         
         public int getSize() { return size; }
+        public long getWeightedSize() { return weightedSize; }
         public long getHitCount() { return hitCount; }
         public long getMissCount() { return missCount; }
         public double getHitRate() { return hitRate; }
+        public long getLoadSuccessCount() { return loadSuccessCount; }
+        public long getLoadFailureCount() { return loadFailureCount; }
+        public long getTotalLoadTimeNanos() { return loadLatency.getSumNanos(); }
+        public LatencyHistogram.Snapshot getGetLatency() { return getLatency; }
+        public LatencyHistogram.Snapshot getLoadLatency() { return loadLatency; }
+        
+        public long getRemovalCount(RemovalCause cause) {
+            return removalCounts[cause.ordinal()];
+        }
+        
+        /**
+         * Entries removed because the cache was over capacity (size or memory pressure)
+         */
+        public long getEvictionCount() {
+            return getRemovalCount(RemovalCause.SIZE) + getRemovalCount(RemovalCause.MEMORY_PRESSURE);
+        }
+        
+        public long getExpirationCount() {
+            return getRemovalCount(RemovalCause.EXPIRED);
+        }
+        
+        public double getAverageLoadPenaltyMillis() {
+            return loadLatency.getMeanNanos() / 1_000_000.0;
+        }
         
         @Override
         public String toString() {
-            return String.format("CacheStatistics{size=%d, hits=%d, misses=%d, hitRate=%.2f%%}",
-                    size, hitCount, missCount, hitRate * 100);
+            return String.format("CacheStatistics{size=%d, hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d, loads=%d, loadFailures=%d, getP99=%dns}",
+                    size, hitCount, missCount, hitRate * 100, getEvictionCount(), getExpirationCount(),
+                    loadSuccessCount, loadFailureCount, getLatency.getPercentileNanos(99));
         }
     }
-} 
\ No newline at end of file
+}
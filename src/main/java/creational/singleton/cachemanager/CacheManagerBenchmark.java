@@ -0,0 +1,235 @@
+package creational.singleton.cachemanager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation benchmark for CacheManager under mixed read/write load.
+ *
+ * Runs every combination of key distribution (uniform, Zipfian), read ratio (100/0 down
+ * to 50/50), key space (fits in the cache, or 10x larger so every write evicts) and
+ * thread count (1 to 64), and prints ops/s, allocated bytes per operation and hit rate.
+ * Each scenario runs in its own region after a warm-up pass; key sequences are
+ * precomputed so that key generation is not part of the measurement.
+ *
+ * Usage: CacheManagerBenchmark [measureMillis] [warmupMillis]
+ */
+public class CacheManagerBenchmark {
+
+    private static final int CAPACITY = 10_000;
+    private static final int SEQUENCE_LENGTH = 1 << 16;
+    private static final int[] READ_PERCENTS = {100, 95, 75, 50};
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final int[] KEY_SPACES = {CAPACITY / 2, CAPACITY * 10};
+
+    enum Distribution { UNIFORM, ZIPFIAN }
+
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws InterruptedException {
+        long measureMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long warmupMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        System.out.println("=== CacheManager Benchmark ===");
+        System.out.printf("capacity=%d, measure=%dms, warmup=%dms, cores=%d%n%n",
+                CAPACITY, measureMillis, warmupMillis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %6s %8s %8s %14s %10s %10s %8s%n",
+                "dist", "read%", "keys", "threads", "ops/s", "B/op", "MB/s", "hit%");
+
+        for (Distribution distribution : Distribution.values()) {
+            for (int keySpace : KEY_SPACES) {
+                String[] keys = new String[keySpace];
+                for (int i = 0; i < keySpace; i++) {
+                    keys[i] = "key:" + i;
+                }
+                for (int readPercent : READ_PERCENTS) {
+                    for (int threads : THREAD_COUNTS) {
+                        run(distribution, keys, readPercent, threads, warmupMillis); // warm-up, discarded
+                        Result result = run(distribution, keys, readPercent, threads, measureMillis);
+                        System.out.printf("%-8s %6d %8d %8d %,14.0f %10.1f %10.1f %8.1f%n",
+                                distribution, readPercent, keySpace, threads, result.opsPerSecond(),
+                                result.bytesPerOp(), result.megabytesPerSecond(), result.hitRate * 100);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Result run(Distribution distribution, String[] keys, int readPercent,
+                              int threadCount, long durationMillis) throws InterruptedException {
+        CacheManager cache = CacheManager.region("benchmark");
+        cache.setMaxCacheSize(CAPACITY);
+        cache.setDefaultTtl(0);
+        for (int i = 0; i < Math.min(keys.length, CAPACITY); i++) {
+            cache.put(keys[i], keys[i]);
+        }
+
+        Worker[] workers = new Worker[threadCount];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        ZipfianGenerator zipfian = distribution == Distribution.ZIPFIAN ? new ZipfianGenerator(keys.length) : null;
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(cache, keys, sequence(zipfian, keys.length, i),
+                    writes(readPercent, i), start);
+            Thread thread = new Thread(workers[i], "CacheManagerBenchmark-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        TimeUnit.MILLISECONDS.sleep(durationMillis);
+        for (Worker worker : workers) {
+            worker.running = false;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        long ops = 0;
+        long bytes = 0;
+        for (Worker worker : workers) {
+            ops += worker.ops;
+            bytes += worker.allocatedBytes;
+        }
+        double hitRate = cache.getHitRate();
+        CacheManager.dropRegion("benchmark");
+        return new Result(ops, bytes, elapsedNanos, hitRate);
+    }
+
+    /**
+     * Precomputed key indexes for one thread, uniform when zipfian is null; each thread gets its own seed
+     */
+    private static int[] sequence(ZipfianGenerator zipfian, int keySpace, int seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] sequence = new int[SEQUENCE_LENGTH];
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            sequence[i] = zipfian == null ? random.nextInt(keySpace) : zipfian.next(random);
+        }
+        return sequence;
+    }
+
+    /**
+     * Precomputed read/write choices, independent of the key so hot keys see the same mix
+     */
+    private static boolean[] writes(int readPercent, int seed) {
+        SplittableRandom random = new SplittableRandom(~seed);
+        boolean[] writes = new boolean[SEQUENCE_LENGTH];
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            writes[i] = random.nextInt(100) >= readPercent;
+        }
+        return writes;
+    }
+
+    private static final class Worker implements Runnable {
+        private final CacheManager cache;
+        private final String[] keys;
+        private final int[] sequence;
+        private final boolean[] writes;
+        private final CountDownLatch start;
+        volatile boolean running = true;
+        long ops;
+        long allocatedBytes;
+
+        Worker(CacheManager cache, String[] keys, int[] sequence, boolean[] writes, CountDownLatch start) {
+            this.cache = cache;
+            this.keys = keys;
+            this.sequence = sequence;
+            this.writes = writes;
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            com.sun.management.ThreadMXBean threadBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+            long count = 0;
+            long sink = 0;
+            int position = 0;
+            while (running) {
+                // Batches of 64 keep the volatile read out of the per-operation cost
+                for (int i = 0; i < 64; i++) {
+                    String key = keys[sequence[position]];
+                    if (writes[position]) {
+                        cache.put(key, key);
+                    } else {
+                        Object value = cache.get(key);
+                        sink += value == null ? 0 : 1;
+                    }
+                    position = (position + 1) & (SEQUENCE_LENGTH - 1);
+                }
+                count += 64;
+            }
+            allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            ops = count;
+            blackhole += sink;
+        }
+    }
+
+    private record Result(long ops, long allocatedBytes, long elapsedNanos, double hitRate) {
+        double opsPerSecond() {
+            return ops * 1e9 / elapsedNanos;
+        }
+
+        double bytesPerOp() {
+            return ops == 0 ? 0 : (double) allocatedBytes / ops;
+        }
+
+        double megabytesPerSecond() {
+            return allocatedBytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+    }
+
+    /**
+     * Zipfian index generator (Gray et al., as used by YCSB) with skew 0.99; index 0 is hottest
+     */
+    private static final class ZipfianGenerator {
+        private static final double THETA = 0.99;
+
+        private final int items;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        ZipfianGenerator(int items) {
+            this.items = items;
+            double zeta2 = zeta(2);
+            this.zetan = zeta(items);
+            this.alpha = 1.0 / (1.0 - THETA);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - THETA)) / (1 - zeta2 / zetan);
+        }
+
+        int next(SplittableRandom random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, THETA)) {
+                return 1;
+            }
+            return (int) Math.min(items - 1, items * Math.pow(eta * u - eta + 1, alpha));
+        }
+
+        private static double zeta(int n) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, THETA);
+            }
+            return sum;
+        }
+    }
+}
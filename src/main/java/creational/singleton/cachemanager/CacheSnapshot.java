@@ -0,0 +1,251 @@
+package creational.singleton.cachemanager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary file format for warm-restarting a CacheManager.
+ *
+ * Layout: a header (magic, version, wall-clock save time, record count) followed by
+ * one record per entry: key length and UTF-8 bytes, remaining TTL in millis (0 for
+ * none), access frequency, tag count and length-prefixed UTF-8 tags, value length and
+ * Java-serialized value bytes.
+ * Files are written through a temporary file and an atomic move, so a crash never
+ * leaves a half-written snapshot behind. Reading maps the file and deserializes
+ * values in parallel; only load snapshots this process family wrote itself.
+ */
+final class CacheSnapshot {
+
+    private static final int MAGIC = 0x434D534E; // "CMSN"
+    private static final short VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * One live entry as captured from, or restored into, the cache
+     */
+    static final class Record {
+        final String key;
+        final Object value;
+        final long remainingTtlMillis;
+        final int frequency;
+        final String[] tags; // null when untagged
+
+        Record(String key, Object value, long remainingTtlMillis, int frequency, String[] tags) {
+            this.key = key;
+            this.value = value;
+            this.remainingTtlMillis = remainingTtlMillis;
+            this.frequency = frequency;
+            this.tags = tags;
+        }
+    }
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Serialize the records in parallel and write them to path; values that are not
+     * Serializable are skipped. Returns the number of records written.
+     */
+    static int write(Path path, List<Record> records) throws IOException {
+        List<byte[]> values;
+        try {
+            values = records.parallelStream()
+                    .map(record -> serialize(record.value))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        int written = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(System.currentTimeMillis()).putInt(0);
+
+            for (int i = 0; i < records.size(); i++) {
+                byte[] value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                Record record = records.get(i);
+                byte[] key = record.key.getBytes(StandardCharsets.UTF_8);
+                byte[][] tags = encodeTags(record.tags);
+                int recordBytes = Integer.BYTES + key.length + Long.BYTES + Byte.BYTES
+                        + Short.BYTES + Integer.BYTES;
+                for (byte[] tag : tags) {
+                    recordBytes += Integer.BYTES + tag.length;
+                }
+                if (buffer.remaining() < recordBytes) {
+                    drain(channel, buffer);
+                }
+                if (buffer.remaining() < recordBytes) {
+                    buffer = ByteBuffer.allocateDirect(recordBytes + BUFFER_BYTES); // oversized key
+                }
+                buffer.putInt(key.length).put(key)
+                        .putLong(record.remainingTtlMillis)
+                        .put((byte) Math.min(record.frequency, Byte.MAX_VALUE))
+                        .putShort((short) tags.length);
+                for (byte[] tag : tags) {
+                    buffer.putInt(tag.length).put(tag);
+                }
+                buffer.putInt(value.length);
+                if (buffer.remaining() >= value.length) {
+                    buffer.put(value);
+                } else {
+                    // Large values go straight to the channel instead of through the buffer
+                    drain(channel, buffer);
+                    ByteBuffer wrapped = ByteBuffer.wrap(value);
+                    while (wrapped.hasRemaining()) {
+                        channel.write(wrapped);
+                    }
+                }
+                written++;
+            }
+            drain(channel, buffer);
+
+            // Patch the record count now that skipped values are known
+            ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(written).flip();
+            channel.write(count, HEADER_BYTES - Integer.BYTES);
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Read every record in path, with remaining TTLs reduced by the time elapsed since the
+     * snapshot was written. Records that expired in the meantime are dropped.
+     */
+    static List<Record> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (file.remaining() < HEADER_BYTES || file.getInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            short version = file.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache snapshot version " + version + ": " + path);
+            }
+            long downtimeMillis = Math.max(0, System.currentTimeMillis() - file.getLong());
+            int count = file.getInt();
+
+            // Walk the record headers sequentially, leaving value decoding for the parallel pass
+            List<int[]> slices = new ArrayList<>(count);
+            List<Record> headers = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    byte[] key = new byte[file.getInt()];
+                    file.get(key);
+                    long ttl = file.getLong();
+                    int frequency = file.get();
+                    String[] tags = null;
+                    int tagCount = file.getShort();
+                    if (tagCount > 0) {
+                        tags = new String[tagCount];
+                        for (int t = 0; t < tagCount; t++) {
+                            byte[] tag = new byte[file.getInt()];
+                            file.get(tag);
+                            tags[t] = new String(tag, StandardCharsets.UTF_8);
+                        }
+                    }
+                    int valueLength = file.getInt();
+                    slices.add(new int[] {file.position(), valueLength});
+                    file.position(file.position() + valueLength);
+                    headers.add(new Record(new String(key, StandardCharsets.UTF_8), null, ttl, frequency, tags));
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Truncated cache snapshot: " + path, e);
+            }
+
+            try {
+                return IntStream.range(0, count).parallel()
+                        .mapToObj(i -> {
+                            Record header = headers.get(i);
+                            long ttl = header.remainingTtlMillis;
+                            if (ttl > 0) {
+                                ttl -= downtimeMillis;
+                                if (ttl <= 0) {
+                                    return null;
+                                }
+                            }
+                            byte[] value = new byte[slices.get(i)[1]];
+                            file.get(slices.get(i)[0], value);
+                            return new Record(header.key, deserialize(value), ttl, header.frequency, header.tags);
+                        })
+                        .filter(Objects::nonNull)
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static byte[][] encodeTags(String[] tags) {
+        if (tags == null) {
+            return new byte[0][];
+        }
+        byte[][] encoded = new byte[Math.min(tags.length, Short.MAX_VALUE)][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = tags[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[] serialize(Object value) {
+        if (!(value instanceof Serializable)) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (NotSerializableException e) {
+            return null; // a field deeper in the object graph is not serializable
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] value) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            return in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException("Snapshot value class not found", e));
+        }
+    }
+}
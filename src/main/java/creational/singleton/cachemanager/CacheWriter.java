@@ -0,0 +1,36 @@
+package creational.singleton.cachemanager;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Backing store that CacheManager keeps in sync with explicit puts and removes.
+ * Loaded values, evictions and expirations are never written back.
+ * Implementations should override the bulk methods when the store supports batching.
+ */
+public interface CacheWriter {
+
+    /**
+     * Store or update one value
+     */
+    void write(String key, Object value);
+
+    /**
+     * Delete one key from the store
+     */
+    void delete(String key);
+
+    /**
+     * Store a batch of values
+     */
+    default void writeAll(Map<String, Object> entries) {
+        entries.forEach(this::write);
+    }
+
+    /**
+     * Delete a batch of keys
+     */
+    default void deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+}
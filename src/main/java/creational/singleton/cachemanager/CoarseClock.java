@@ -0,0 +1,36 @@
+package creational.singleton.cachemanager;
+
+/**
+ * Monotonic millisecond clock refreshed by a background tick.
+ * Hot paths read a volatile field instead of asking the OS for the time on every call.
+ * Once the tick is stopped, reads fall back to the OS clock so time keeps moving.
+ */
+final class CoarseClock {
+    static final long TICK_MILLIS = 10;
+
+    private volatile long millis = System.nanoTime() / 1_000_000;
+    private volatile boolean ticking = true;
+
+    /**
+     * Current time, at most one tick stale while the background tick runs
+     */
+    long millis() {
+        return ticking ? millis : tick();
+    }
+
+    /**
+     * Refresh the cached time
+     */
+    long tick() {
+        long now = System.nanoTime() / 1_000_000;
+        millis = now;
+        return now;
+    }
+
+    /**
+     * The background tick has stopped; later reads ask the OS clock
+     */
+    void stop() {
+        ticking = false;
+    }
+}
@@ -0,0 +1,52 @@
+package creational.singleton.cachemanager;
+
+/**
+ * Strategy that decides which entry leaves the cache once it is full.
+ * Every operation is expected to run in O(1). Implementations are not
+ * thread-safe: CacheManager only calls them while holding its eviction lock.
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Set the capacity of the cache in weight units (entries when every entry weighs 1)
+     */
+    void setMaximum(long maximum);
+
+    /**
+     * Record that a new key with the given weight was added to the cache
+     */
+    void recordInsert(String key, int weight);
+
+    /**
+     * Record that the value of a key was replaced by one with the given weight
+     */
+    void recordUpdate(String key, int weight);
+
+    /**
+     * Record a read of a key already in the cache
+     */
+    void recordAccess(String key);
+
+    /**
+     * Record that a key left the cache for a reason other than eviction by this policy
+     */
+    void recordRemoval(String key);
+
+    /**
+     * Choose the next entry to evict and stop tracking it.
+     * Returns null if the policy tracks no entries.
+     */
+    String selectVictim();
+
+    /**
+     * Estimated access frequency of a key, or 0 if the policy does not track frequency
+     */
+    default int frequency(String key) {
+        return 0;
+    }
+
+    /**
+     * Forget every tracked key
+     */
+    void clear();
+}
@@ -0,0 +1,69 @@
+package creational.singleton.cachemanager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed CacheWriter simulating a slow store, for demos and local testing.
+ * Every call, single or bulk, costs one simulated round trip.
+ */
+public class InMemoryCacheWriter implements CacheWriter {
+
+    private final Map<String, Object> store = new ConcurrentHashMap<>();
+    private final long roundTripMillis;
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    public InMemoryCacheWriter(long roundTripMillis) {
+        this.roundTripMillis = roundTripMillis;
+    }
+
+    @Override
+    public void write(String key, Object value) {
+        roundTrip();
+        store.put(key, value);
+    }
+
+    @Override
+    public void delete(String key) {
+        roundTrip();
+        store.remove(key);
+    }
+
+    @Override
+    public void writeAll(Map<String, Object> entries) {
+        roundTrip();
+        store.putAll(entries);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        roundTrip();
+        keys.forEach(store::remove);
+    }
+
+    public Object read(String key) {
+        return store.get(key);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        if (roundTripMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(roundTripMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
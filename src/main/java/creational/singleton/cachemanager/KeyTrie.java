@@ -0,0 +1,182 @@
+package creational.singleton.cachemanager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Radix trie of cache keys for prefix lookups.
+ *
+ * Edges carry whole substrings, and chains of single-child nodes are merged on removal,
+ * so the trie has at most two nodes per key. Finding all keys under a prefix costs the
+ * prefix length plus the size of the matching subtree, independent of the total key count.
+ * Not thread-safe; CacheManager calls it while holding its eviction lock.
+ */
+final class KeyTrie {
+
+    private static final class Node {
+        String label;                 // edge label from the parent
+        String key;                   // non-null when a key ends at this node
+        Map<Character, Node> children; // keyed by the first character of each child's label
+
+        Node(String label, String key) {
+            this.label = label;
+            this.key = key;
+        }
+
+        Node child(char first) {
+            return children == null ? null : children.get(first);
+        }
+
+        void putChild(Node child) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            children.put(child.label.charAt(0), child);
+        }
+
+        int childCount() {
+            return children == null ? 0 : children.size();
+        }
+    }
+
+    private final Node root = new Node("", null);
+    private int size;
+
+    /**
+     * Add a key; returns false if it was already present
+     */
+    boolean add(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                node.putChild(new Node(key.substring(i), key));
+                size++;
+                return true;
+            }
+            int common = commonPrefixLength(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge at the point where the key diverges
+                Node split = new Node(child.label.substring(0, common), null);
+                child.label = child.label.substring(common);
+                split.putChild(child);
+                node.putChild(split);
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.key != null) {
+            return false;
+        }
+        node.key = key;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove a key; returns false if it was not present
+     */
+    boolean remove(String key) {
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return false;
+            }
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+        if (node.key == null) {
+            return false;
+        }
+        node.key = null;
+        size--;
+
+        if (parent == null) {
+            return true; // empty key lives at the root
+        }
+        if (node.childCount() == 0) {
+            parent.children.remove(node.label.charAt(0));
+            if (parent != root && parent.key == null && parent.childCount() == 1) {
+                mergeWithOnlyChild(parent);
+            }
+        } else if (node.childCount() == 1) {
+            mergeWithOnlyChild(node);
+        }
+        return true;
+    }
+
+    /**
+     * All keys starting with prefix
+     */
+    List<String> keysWithPrefix(String prefix) {
+        List<String> keys = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return keys;
+            }
+            int remaining = prefix.length() - i;
+            if (child.label.length() > remaining) {
+                // The prefix ends inside this edge
+                if (!child.label.startsWith(prefix.substring(i))) {
+                    return keys;
+                }
+            } else if (!prefix.startsWith(child.label, i)) {
+                return keys;
+            }
+            node = child;
+            i += child.label.length();
+        }
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (current.key != null) {
+                keys.add(current.key);
+            }
+            if (current.children != null) {
+                current.children.values().forEach(stack::push);
+            }
+        }
+        return keys;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        root.key = null;
+        root.children = null;
+        size = 0;
+    }
+
+    private static void mergeWithOnlyChild(Node node) {
+        Node child = node.children.values().iterator().next();
+        node.label = node.label + child.label;
+        node.key = child.key;
+        node.children = child.children;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
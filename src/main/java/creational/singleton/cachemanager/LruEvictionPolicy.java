@@ -0,0 +1,59 @@
+package creational.singleton.cachemanager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Classic least-recently-used policy backed by an access-ordered LinkedHashMap.
+ * Every operation is O(1), but a single scan over cold keys flushes the hot set.
+ */
+public class LruEvictionPolicy implements EvictionPolicy {
+
+    private final LinkedHashMap<String, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void setMaximum(long maximum) {
+        // Plain LRU does not size any internal structure
+    }
+
+    @Override
+    public void recordInsert(String key, int weight) {
+        accessOrder.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void recordUpdate(String key, int weight) {
+        accessOrder.get(key);
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        accessOrder.get(key);
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        accessOrder.remove(key);
+    }
+
+    @Override
+    public String selectVictim() {
+        Iterator<String> iterator = accessOrder.keySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        String victim = iterator.next();
+        iterator.remove();
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        accessOrder.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "LRU";
+    }
+}
@@ -0,0 +1,104 @@
+package creational.singleton.cachemanager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * Watches heap memory pools through MemoryPoolMXBean threshold notifications.
+ *
+ * Both the usage threshold and, where supported, the collection usage threshold
+ * (usage right after a GC) are set on every heap pool. The usage threshold reacts
+ * quickly, for example to large objects allocated straight into the old generation,
+ * while the collection threshold catches live data that survives a collection.
+ * One JVM-wide monitor is shared by all caches since pool thresholds are global.
+ */
+final class MemoryPressureMonitor implements NotificationListener {
+
+    private static class MemoryPressureMonitorHelper {
+        private static final MemoryPressureMonitor INSTANCE = new MemoryPressureMonitor();
+    }
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final List<MemoryPoolMXBean> heapPools;
+    private boolean registered;
+
+    private MemoryPressureMonitor() {
+        this.heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.isCollectionUsageThresholdSupported() || pool.isUsageThresholdSupported())
+                .toList();
+    }
+
+    static MemoryPressureMonitor getInstance() {
+        return MemoryPressureMonitorHelper.INSTANCE;
+    }
+
+    /**
+     * Set the threshold on every heap pool as a fraction of its maximum size
+     */
+    synchronized void setThreshold(double fraction) {
+        if (fraction <= 0 || fraction >= 1) {
+            throw new IllegalArgumentException("Heap threshold must be in (0, 1)");
+        }
+
+        for (MemoryPoolMXBean pool : heapPools) {
+            long max = pool.getUsage().getMax();
+            if (max <= 0) {
+                continue;
+            }
+            long threshold = (long) (max * fraction);
+            if (pool.isUsageThresholdSupported()) {
+                pool.setUsageThreshold(threshold);
+            }
+            if (pool.isCollectionUsageThresholdSupported()) {
+                pool.setCollectionUsageThreshold(threshold);
+            }
+        }
+
+        if (!registered) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+            registered = true;
+        }
+    }
+
+    void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Whether any heap pool is currently above its threshold
+     */
+    boolean isUnderPressure() {
+        for (MemoryPoolMXBean pool : heapPools) {
+            if (pool.isUsageThresholdSupported()
+                    && pool.getUsageThreshold() > 0 && pool.isUsageThresholdExceeded()) {
+                return true;
+            }
+            if (pool.isCollectionUsageThresholdSupported()
+                    && pool.getCollectionUsageThreshold() > 0 && pool.isCollectionUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)
+                || MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)) {
+            listeners.forEach(Runnable::run);
+        }
+    }
+}
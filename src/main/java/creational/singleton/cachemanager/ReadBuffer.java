@@ -0,0 +1,80 @@
+package creational.singleton.cachemanager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Striped, lossy buffer of reads waiting to be replayed into the eviction policy.
+ *
+ * Each thread hashes to one of several small ring buffers and claims a slot with a CAS on
+ * that stripe's tail, so readers never touch the eviction lock and rarely share a counter.
+ * A read that finds its stripe full, or loses the CAS, is dropped: the policy only needs a
+ * sample of the access pattern. The buffer is drained by whoever holds the eviction lock.
+ */
+final class ReadBuffer {
+
+    private static final int STRIPE_SIZE = 16; // slots per stripe, a power of two
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    ReadBuffer() {
+        int count = Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+    }
+
+    /**
+     * Buffer a read of the key, or drop it if the stripe is busy; true when the stripe is
+     * full and worth draining
+     */
+    boolean offer(String key) {
+        Stripe stripe = stripes[stripeIndex()];
+        long tail = stripe.tail.get();
+        long size = tail - stripe.head;
+        if (size >= STRIPE_SIZE) {
+            return true;
+        }
+        if (stripe.tail.compareAndSet(tail, tail + 1)) {
+            stripe.slots.lazySet((int) tail & STRIPE_MASK, key);
+            return size + 1 == STRIPE_SIZE;
+        }
+        return false;
+    }
+
+    /**
+     * Replay the buffered reads into the policy; the caller must hold the eviction lock
+     */
+    void drainTo(EvictionPolicy policy) {
+        for (Stripe stripe : stripes) {
+            long head = stripe.head;
+            long tail = stripe.tail.get();
+            for (; head < tail; head++) {
+                int index = (int) head & STRIPE_MASK;
+                String key = stripe.slots.get(index);
+                if (key == null) {
+                    break; // claimed but not yet published, picked up by the next drain
+                }
+                stripe.slots.lazySet(index, null);
+                policy.recordAccess(key);
+            }
+            stripe.head = head; // frees the drained slots for writers
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    private static final class Stripe {
+        private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head; // only written under the eviction lock
+    }
+}
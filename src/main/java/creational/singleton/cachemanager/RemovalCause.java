@@ -0,0 +1,30 @@
+package creational.singleton.cachemanager;
+
+/**
+ * Reason an entry left the cache
+ */
+public enum RemovalCause {
+    /** Removed by remove(key) */
+    EXPLICIT(false),
+    /** Value overwritten by a put for the same key */
+    REPLACED(false),
+    /** Time to live elapsed */
+    EXPIRED(true),
+    /** Chosen by the eviction policy because the cache was full */
+    SIZE(true),
+    /** Chosen by the eviction policy after the capacity shrank under heap pressure */
+    MEMORY_PRESSURE(true);
+
+    private final boolean eviction;
+
+    RemovalCause(boolean eviction) {
+        this.eviction = eviction;
+    }
+
+    /**
+     * Whether the cache removed the entry on its own rather than on a caller's request
+     */
+    public boolean isEviction() {
+        return eviction;
+    }
+}
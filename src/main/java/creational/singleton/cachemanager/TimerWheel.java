@@ -0,0 +1,142 @@
+package creational.singleton.cachemanager;
+
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timer wheel that expires cache entries in amortized O(1).
+ *
+ * Each level is an array of buckets, and each bucket is a circular doubly linked
+ * list of entries. Level 0 buckets are 128 ms wide, and every higher level covers
+ * the whole span of the level below with each bucket. When time advances only the
+ * buckets that were passed are visited: their entries are either expired or
+ * cascaded down into a finer level. Entries are never scanned more than once per level.
+ * Not thread-safe; callers hold the cache's eviction lock.
+ */
+final class TimerWheel {
+
+    // 2^7 ms (128 ms), 2^13 ms (8.2 s), 2^19 ms (8.7 min), 2^25 ms (9.3 h), 2^30 ms (12.4 days)
+    private static final int[] BUCKETS = {64, 64, 64, 32, 1};
+    private static final int[] SHIFT = {7, 13, 19, 25, 30};
+    private static final long[] SPANS = {1L << 7, 1L << 13, 1L << 19, 1L << 25, 1L << 30};
+
+    private final CacheEntry[][] wheel;
+    private long time;
+
+    TimerWheel(long now) {
+        this.time = now;
+        this.wheel = new CacheEntry[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new CacheEntry[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = new CacheEntry();
+            }
+        }
+    }
+
+    /**
+     * Add an entry to the bucket matching its expiration time
+     */
+    void schedule(CacheEntry entry) {
+        if (!entry.hasExpiration()) {
+            return;
+        }
+        link(findBucket(entry.getExpirationTime()), entry);
+    }
+
+    /**
+     * Remove an entry from its bucket if it is scheduled
+     */
+    void deschedule(CacheEntry entry) {
+        if (entry.nextInWheel == null) {
+            return;
+        }
+        entry.nextInWheel.previousInWheel = entry.previousInWheel;
+        entry.previousInWheel.nextInWheel = entry.nextInWheel;
+        entry.nextInWheel = null;
+        entry.previousInWheel = null;
+    }
+
+    /**
+     * Move the wheel forward to the given time, handing every expired entry to the expirer.
+     * If the expirer returns false the entry is kept and rescheduled.
+     */
+    void advance(long now, Predicate<CacheEntry> expirer) {
+        long previousTime = time;
+        time = now;
+
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previousTime >>> SHIFT[level];
+            long currentTicks = now >>> SHIFT[level];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            expire(level, previousTicks, delta, expirer);
+        }
+    }
+
+    /**
+     * Drop every scheduled entry
+     */
+    void clear() {
+        for (CacheEntry[] buckets : wheel) {
+            for (CacheEntry sentinel : buckets) {
+                CacheEntry entry = sentinel.nextInWheel;
+                while (entry != sentinel) {
+                    CacheEntry next = entry.nextInWheel;
+                    entry.previousInWheel = null;
+                    entry.nextInWheel = null;
+                    entry = next;
+                }
+                sentinel.previousInWheel = sentinel;
+                sentinel.nextInWheel = sentinel;
+            }
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, Predicate<CacheEntry> expirer) {
+        CacheEntry[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+
+        for (int i = start; i < end; i++) {
+            CacheEntry sentinel = buckets[i & mask];
+            CacheEntry entry = sentinel.nextInWheel;
+            sentinel.previousInWheel = sentinel;
+            sentinel.nextInWheel = sentinel;
+
+            while (entry != sentinel) {
+                CacheEntry next = entry.nextInWheel;
+                entry.previousInWheel = null;
+                entry.nextInWheel = null;
+
+                // Not yet due entries cascade down into a finer-grained bucket
+                if (!entry.isExpired(time) || !expirer.test(entry)) {
+                    schedule(entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private CacheEntry findBucket(long expirationTime) {
+        long duration = expirationTime - time;
+        int last = wheel.length - 1;
+        for (int level = 0; level < last; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = expirationTime >>> SHIFT[level];
+                return wheel[level][(int) (ticks & (wheel[level].length - 1))];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    private static void link(CacheEntry sentinel, CacheEntry entry) {
+        entry.previousInWheel = sentinel.previousInWheel;
+        entry.nextInWheel = sentinel;
+        sentinel.previousInWheel.nextInWheel = entry;
+        sentinel.previousInWheel = entry;
+    }
+}
@@ -0,0 +1,50 @@
+package creational.singleton.cachemanager;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Computes the relative size of a cache entry, typically in bytes.
+ * Weights are calculated once when an entry is stored.
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    int weigh(String key, Object value);
+
+    /**
+     * Every entry weighs 1, which turns the weight budget into an entry count
+     */
+    static Weigher singleton() {
+        return (key, value) -> 1;
+    }
+
+    /**
+     * Rough shallow heap estimate for common value types (compact strings, arrays, collections)
+     */
+    static Weigher approximateBytes() {
+        return (key, value) -> {
+            long bytes = 64 + 40 + key.length(); // entry and map node overhead plus the key
+            if (value instanceof CharSequence) {
+                bytes += 40 + ((CharSequence) value).length();
+            } else if (value instanceof byte[]) {
+                bytes += 16 + ((byte[]) value).length;
+            } else if (value instanceof char[]) {
+                bytes += 16 + 2L * ((char[]) value).length;
+            } else if (value instanceof long[]) {
+                bytes += 16 + 8L * ((long[]) value).length;
+            } else if (value instanceof int[]) {
+                bytes += 16 + 4L * ((int[]) value).length;
+            } else if (value instanceof Collection) {
+                bytes += 40 + 32L * ((Collection<?>) value).size();
+            } else if (value instanceof Map) {
+                bytes += 64 + 48L * ((Map<?, ?>) value).size();
+            } else if (value instanceof Number || value instanceof Boolean) {
+                bytes += 16;
+            } else {
+                bytes += 64;
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        };
+    }
+}
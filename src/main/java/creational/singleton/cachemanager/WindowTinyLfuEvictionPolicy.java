@@ -0,0 +1,284 @@
+package creational.singleton.cachemanager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W-TinyLFU eviction policy.
+ *
+ * New keys enter a small LRU "window" (1% of the capacity). When a key falls out
+ * of the window it becomes a candidate for the main space, which is a segmented
+ * LRU split into a probation and a protected (80%) segment. On eviction the
+ * candidate is compared with the probation victim using a {@link FrequencySketch}
+ * and the less popular of the two is dropped. One-hit wonders from a scan therefore
+ * never displace the frequently used working set. All operations are O(1).
+ * Capacities are in weight units, so one large entry can take the room of many small ones.
+ */
+public class WindowTinyLfuEvictionPolicy implements EvictionPolicy {
+
+    private static final double WINDOW_PERCENTAGE = 0.01;
+    private static final double PROTECTED_PERCENTAGE = 0.80;
+    private static final int WARM_CANDIDATE_FREQUENCY = 6;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node {
+        final String key;
+        Segment segment;
+        int weight;
+        Node previous;
+        Node next;
+
+        Node(String key, Segment segment, int weight) {
+            this.key = key;
+            this.segment = segment;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list ordered from least to most recently used
+     */
+    private static final class AccessOrderQueue {
+        private final Node sentinel = new Node(null, null, 0);
+        private long weight;
+
+        AccessOrderQueue() {
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        void addLast(Node node) {
+            node.previous = sentinel.previous;
+            node.next = sentinel;
+            sentinel.previous.next = node;
+            sentinel.previous = node;
+            weight += node.weight;
+        }
+
+        void remove(Node node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToBack(Node node) {
+            remove(node);
+            addLast(node);
+        }
+
+        Node peekFirst() {
+            return sentinel.next == sentinel ? null : sentinel.next;
+        }
+
+        void updateWeight(Node node, int newWeight) {
+            weight += newWeight - node.weight;
+            node.weight = newWeight;
+        }
+
+        long weight() {
+            return weight;
+        }
+
+        void clear() {
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            weight = 0;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final AccessOrderQueue window = new AccessOrderQueue();
+    private final AccessOrderQueue probation = new AccessOrderQueue();
+    private final AccessOrderQueue protectedQueue = new AccessOrderQueue();
+
+    private long windowMaximum = 1;
+    private long protectedMaximum;
+    // Most recent key demoted from the window that has not been judged yet
+    private Node candidate;
+
+    @Override
+    public void setMaximum(long maximum) {
+        long capacity = Math.max(maximum, 1);
+        windowMaximum = Math.max(1, (long) (capacity * WINDOW_PERCENTAGE));
+        protectedMaximum = (long) ((capacity - windowMaximum) * PROTECTED_PERCENTAGE);
+        rebalance();
+    }
+
+    @Override
+    public void recordInsert(String key, int weight) {
+        if (nodes.containsKey(key)) {
+            recordUpdate(key, weight);
+            return;
+        }
+
+        Node node = new Node(key, Segment.WINDOW, weight);
+        nodes.put(key, node);
+        window.addLast(node);
+
+        // The capacity may be in bytes, so the sketch is sized from the number of keys instead
+        sketch.ensureCapacity(nodes.size());
+        sketch.increment(key);
+        rebalance();
+    }
+
+    @Override
+    public void recordUpdate(String key, int weight) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            return;
+        }
+
+        queueOf(node).updateWeight(node, weight);
+        recordAccess(key);
+        rebalance();
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            return;
+        }
+
+        sketch.increment(key);
+        switch (node.segment) {
+            case WINDOW -> window.moveToBack(node);
+            case PROTECTED -> protectedQueue.moveToBack(node);
+            case PROBATION -> {
+                // A second hit in the main space promotes the key to the protected segment
+                probation.remove(node);
+                node.segment = Segment.PROTECTED;
+                protectedQueue.addLast(node);
+                if (node == candidate) {
+                    candidate = null;
+                }
+                rebalance();
+            }
+        }
+    }
+
+    @Override
+    public void recordRemoval(String key) {
+        Node node = nodes.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    @Override
+    public String selectVictim() {
+        Node victim = probation.peekFirst();
+
+        if (candidate != null) {
+            Node contender = candidate;
+            candidate = null;
+            if (victim != null && victim != contender) {
+                Node loser = admit(contender, victim) ? victim : contender;
+                evict(loser);
+                return loser.key;
+            }
+        }
+
+        if (victim == null) {
+            victim = protectedQueue.peekFirst();
+        }
+        if (victim == null) {
+            victim = window.peekFirst();
+        }
+        if (victim == null) {
+            return null;
+        }
+
+        evict(victim);
+        return victim.key;
+    }
+
+    @Override
+    public int frequency(String key) {
+        return sketch.frequency(key);
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        sketch.clear();
+        candidate = null;
+    }
+
+    /**
+     * TinyLFU admission: the candidate must be more popular than the victim.
+     * Warm candidates are occasionally admitted at random so that an attacker
+     * cannot pin a victim in place by flooding its hash collisions.
+     */
+    private boolean admit(Node contender, Node victim) {
+        int candidateFrequency = sketch.frequency(contender.key);
+        int victimFrequency = sketch.frequency(victim.key);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        if (candidateFrequency < WARM_CANDIDATE_FREQUENCY) {
+            return false;
+        }
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    /**
+     * Move overflow from the window and the protected segment into probation
+     */
+    private void rebalance() {
+        while (window.weight() > windowMaximum && window.peekFirst() != null) {
+            demoteFromWindow();
+        }
+        while (protectedQueue.weight() > protectedMaximum && protectedQueue.peekFirst() != null) {
+            demoteFromProtected();
+        }
+    }
+
+    private void demoteFromWindow() {
+        Node node = window.peekFirst();
+        window.remove(node);
+        node.segment = Segment.PROBATION;
+        probation.addLast(node);
+        candidate = node;
+    }
+
+    private void demoteFromProtected() {
+        Node node = protectedQueue.peekFirst();
+        protectedQueue.remove(node);
+        node.segment = Segment.PROBATION;
+        probation.addLast(node);
+    }
+
+    private void evict(Node node) {
+        nodes.remove(node.key);
+        unlink(node);
+    }
+
+    private AccessOrderQueue queueOf(Node node) {
+        return switch (node.segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedQueue;
+        };
+    }
+
+    private void unlink(Node node) {
+        queueOf(node).remove(node);
+        if (node == candidate) {
+            candidate = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "W-TinyLFU";
+    }
+}
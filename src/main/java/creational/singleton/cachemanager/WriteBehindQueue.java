@@ -0,0 +1,221 @@
+package creational.singleton.cachemanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous, coalescing write-behind buffer in front of a CacheWriter.
+ *
+ * Pending writes are kept in a map keyed by cache key, so repeated updates to the
+ * same key collapse into one store write carrying the latest value. A daemon thread
+ * flushes the buffer in batches every flush interval, or as soon as a full batch is
+ * waiting. A failed batch is retried with exponential backoff; an update that
+ * arrived in the meantime always wins over the retried value.
+ */
+final class WriteBehindQueue {
+
+    // Marks a pending delete; never handed to the writer
+    private static final Object DELETE = new Object();
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final class PendingWrite {
+        final Object value;
+        final int attempts;
+        final long notBeforeNanos;
+
+        PendingWrite(Object value, int attempts, long notBeforeNanos) {
+            this.value = value;
+            this.attempts = attempts;
+            this.notBeforeNanos = notBeforeNanos;
+        }
+    }
+
+    private final CacheWriter writer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int maxRetries;
+    private final ConcurrentHashMap<String, PendingWrite> pending;
+    private final ReentrantLock flushLock;
+    private final Thread flusher;
+    private volatile boolean running;
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    WriteBehindQueue(CacheWriter writer, int batchSize, long flushIntervalMillis, int maxRetries) {
+        if (batchSize <= 0 || flushIntervalMillis <= 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive, retries non-negative");
+        }
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxRetries = maxRetries;
+        this.pending = new ConcurrentHashMap<>();
+        this.flushLock = new ReentrantLock();
+        this.running = true;
+
+        this.flusher = new Thread(this::runFlusher, "CacheManager-WriteBehind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    void enqueueWrite(String key, Object value) {
+        enqueue(key, new PendingWrite(value, 0, 0));
+    }
+
+    void enqueueDelete(String key) {
+        enqueue(key, new PendingWrite(DELETE, 0, 0));
+    }
+
+    /**
+     * Write everything that is pending now, ignoring retry backoff
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                if (drainBatch(true) == 0) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stop the flusher thread and write whatever is still pending
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("pending", pending.size());
+        statistics.put("enqueued", enqueuedCount.sum());
+        statistics.put("coalesced", coalescedCount.sum());
+        statistics.put("batches", batchCount.sum());
+        statistics.put("written", writtenCount.sum());
+        statistics.put("retries", retryCount.sum());
+        statistics.put("dropped", droppedCount.sum());
+        return statistics;
+    }
+
+    private void enqueue(String key, PendingWrite write) {
+        enqueuedCount.increment();
+        if (pending.put(key, write) != null) {
+            coalescedCount.increment();
+        }
+        if (pending.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            flushLock.lock();
+            try {
+                // Keep draining while full batches are waiting so bursts do not pile up
+                int drained;
+                do {
+                    drained = drainBatch(false);
+                } while (running && drained == batchSize);
+            } catch (RuntimeException e) {
+                // A misbehaving writer must not kill the flusher thread
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Take up to one batch of due writes out of the buffer and hand it to the writer
+     */
+    private int drainBatch(boolean ignoreBackoff) {
+        long now = System.nanoTime();
+        Map<String, PendingWrite> batch = new HashMap<>();
+
+        for (Map.Entry<String, PendingWrite> entry : pending.entrySet()) {
+            if (batch.size() >= batchSize) {
+                break;
+            }
+            PendingWrite write = entry.getValue();
+            if (!ignoreBackoff && write.notBeforeNanos - now > 0) {
+                continue;
+            }
+            // Only take the write we looked at; a newer update stays queued
+            if (pending.remove(entry.getKey(), write)) {
+                batch.put(entry.getKey(), write);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Object> writes = new HashMap<>();
+        List<String> deletes = new ArrayList<>();
+        batch.forEach((key, write) -> {
+            if (write.value == DELETE) {
+                deletes.add(key);
+            } else {
+                writes.put(key, write.value);
+            }
+        });
+
+        if (!writes.isEmpty()) {
+            try {
+                writer.writeAll(writes);
+                writtenCount.add(writes.size());
+            } catch (RuntimeException e) {
+                retryLater(writes.keySet(), batch, now);
+            }
+        }
+        if (!deletes.isEmpty()) {
+            try {
+                writer.deleteAll(deletes);
+                writtenCount.add(deletes.size());
+            } catch (RuntimeException e) {
+                retryLater(deletes, batch, now);
+            }
+        }
+
+        batchCount.increment();
+        return batch.size();
+    }
+
+    private void retryLater(Iterable<String> keys, Map<String, PendingWrite> batch, long now) {
+        for (String key : keys) {
+            PendingWrite failed = batch.get(key);
+            int attempts = failed.attempts + 1;
+            if (attempts > maxRetries) {
+                droppedCount.increment();
+                continue;
+            }
+            long backoff = RETRY_BACKOFF_NANOS << Math.min(attempts - 1, 16);
+            if (pending.putIfAbsent(key, new PendingWrite(failed.value, attempts, now + backoff)) == null) {
+                retryCount.increment();
+            }
+        }
+    }
+}
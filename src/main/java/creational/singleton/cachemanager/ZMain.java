@@ -1,14 +1,21 @@
 package creational.singleton.cachemanager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Demonstration of the Cache Manager Singleton
  */
 public class ZMain {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("=== Cache Manager Singleton Demo ===\n");
         
         // Get the singleton instance
@@ -135,7 +142,43 @@ public class ZMain {
         
         System.out.println();
         
+        // Demonstrate loading cache with single-flight miss coalescing
+        System.out.println("=== Loading Cache Demo ===");
+        
+        AtomicInteger loaderCalls = new AtomicInteger();
+        ExecutorService loaders = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            loaders.submit(() -> cache.getOrLoad("product:42", key -> {
+                loaderCalls.incrementAndGet();
+                try {
+                    Thread.sleep(200); // Simulate a slow backing store
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "Loaded " + key;
+            }));
+        }
+        loaders.shutdown();
+        try {
+            loaders.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        System.out.println("8 concurrent misses on product:42, loader invoked " + loaderCalls.get() + " time(s)");
+        System.out.println("product:42 = " + cache.get("product:42"));
+        
+        Map<String, String> products = cache.getAllOrLoad(List.of("product:42", "product:7", "product:8"), keys -> {
+            System.out.println("Bulk loader called for " + keys);
+            Map<String, String> loaded = new HashMap<>();
+            keys.forEach(key -> loaded.put(key, "Bulk loaded " + key));
+            return loaded;
+        });
+        System.out.println("getAllOrLoad result: " + products);
+        System.out.println();
+        
         // Demonstrate cache configuration
+
         System.out.println("=== Cache Configuration Demo ===");
         
         System.out.println("Current cache info:");
@@ -151,8 +194,8 @@ public class ZMain {
         System.out.println("Max cache size: 50 items");
         System.out.println();
         
-        // Demonstrate cache size limit and LRU eviction
-        System.out.println("=== Cache Size Limit and LRU Eviction ===");
+        // Demonstrate cache size limit and W-TinyLFU eviction
+        System.out.println("=== Cache Size Limit and W-TinyLFU Eviction ===");
         
         System.out.println("Current cache size: " + cache.size());
         
@@ -167,6 +210,7 @@ public class ZMain {
         // Check if original items were evicted
         System.out.println("Original user:123 still in cache: " + cache.containsKey("user:123"));
         System.out.println("Last bulk item in cache: " + cache.containsKey("bulk:item59"));
+        System.out.println("Evictions so far: " + cache.getStatistics().getEvictionCount());
         System.out.println();
         
         // Demonstrate manual cleanup
@@ -199,13 +243,116 @@ public class ZMain {
         System.out.println("\n=== Final Statistics ===");
         CacheManager.CacheStatistics finalStats = cache.getStatistics();
         System.out.println(finalStats);
+        System.out.println("Get latency: " + finalStats.getGetLatency());
+        System.out.println("Load latency: " + finalStats.getLoadLatency());
+        for (RemovalCause cause : RemovalCause.values()) {
+            System.out.println("Removed (" + cause + "): " + finalStats.getRemovalCount(cause));
+        }
         
         System.out.println("\nDetailed cache info:");
         cache.getCacheInfo().forEach((key, value) -> 
             System.out.println("  " + key + ": " + value));
         
+        // Demonstrate byte-budget capacity
+        System.out.println("\n=== Weighted Capacity Demo ===");
+        
+        cache.setMaximumWeight(64 * 1024, Weigher.approximateBytes()); // 64 KB budget
+        cache.enableMemoryPressureAdaptation(0.85); // shrink when a heap pool passes 85%
+        
+        for (int i = 0; i < 20; i++) {
+            cache.put("small:" + i, "tiny");
+        }
+        for (int i = 0; i < 20; i++) {
+            cache.put("payload:" + i, new byte[8 * 1024]);
+        }
+        
+        System.out.println("Entries: " + cache.size() + ", weighted size: "
+                + cache.getStatistics().getWeightedSize() + " bytes (budget 65536)");
+        cache.disableMemoryPressureAdaptation();
+        cache.setMaxCacheSize(50);
+        
+        // Demonstrate write-behind to a slow backing store
+        System.out.println("\n=== Write-Behind Demo ===");
+        
+        InMemoryCacheWriter store = new InMemoryCacheWriter(20); // 20 ms per store call
+        cache.enableWriteBehind(store, 100, 200, 3);
+        
+        long writeStart = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            cache.put("counter:" + (i % 10), i); // 50 updates per key
+        }
+        long writeMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - writeStart);
+        System.out.println("500 puts returned in " + writeMicros + " us without waiting for the store");
+        
+        cache.flushWrites();
+        System.out.println("Store holds " + store.size() + " keys after " + store.getRoundTrips()
+                + " round trips, counter:9 = " + store.read("counter:9"));
+        cache.disableCacheWriter();
+        
+        // Demonstrate bulk invalidation
+        System.out.println("\n=== Tag and Prefix Invalidation Demo ===");
+        
+        cache.clear();
+        for (int i = 0; i < 30; i++) {
+            String tenant = "tenant-" + (i % 3);
+            cache.put(tenant + ":order:" + i, "order-" + i, 60000, tenant, "orders");
+        }
+        System.out.println("Entries: " + cache.size());
+        System.out.println("invalidateByTag(\"tenant-1\") removed " + cache.invalidateByTag("tenant-1"));
+        System.out.println("invalidateByPrefix(\"tenant-2:\") removed " + cache.invalidateByPrefix("tenant-2:"));
+        System.out.println("Remaining entries: " + cache.size());
+        
+        // Demonstrate isolated regions
+        System.out.println("\n=== Cache Regions Demo ===");
+        
+        CacheManager sessions = CacheManager.region("sessions");
+        CacheManager reports = CacheManager.region("reports");
+        sessions.setMaxCacheSize(100);
+        sessions.setDefaultTtl(30 * 60 * 1000); // 30 minutes
+        reports.setMaxCacheSize(200);
+        reports.setEvictionPolicy(new LruEvictionPolicy());
+        
+        for (int i = 0; i < 50; i++) {
+            sessions.put("session:" + i, "user-" + i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            reports.put("row:" + i, "report row " + i); // a scan that would flush a shared cache
+        }
+        System.out.println("Regions: " + CacheManager.getRegionNames());
+        System.out.println("sessions size: " + sessions.size() + ", reports size: " + reports.size()
+                + ", reports evictions: " + reports.getStatistics().getEvictionCount());
+        System.out.println("Same region instance: " + (sessions == CacheManager.region("sessions")));
+        CacheManager.dropRegion("reports");
+        
+        // Demonstrate snapshot and warm restart
+        System.out.println("\n=== Snapshot and Warm Restart Demo ===");
+        
+        for (int i = 0; i < 40; i++) {
+            cache.put("catalog:" + i, "item-" + i, 60000);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5; i++) {
+                cache.get("catalog:" + i); // catalog:0-4 are the hot set
+            }
+        }
+        
+        Path snapshot = Files.createTempFile("cache-manager", ".snapshot");
+        int saved = cache.saveSnapshot(snapshot);
+        System.out.println("Saved " + saved + " entries (" + Files.size(snapshot) + " bytes)");
+        
+        cache.clear(); // simulate a restart
+        cache.setMaxCacheSize(20); // the new node is smaller than the snapshot
+        long restoreStart = System.nanoTime();
+        int restored = cache.loadSnapshot(snapshot);
+        long restoreMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - restoreStart);
+        System.out.println("Read " + restored + " entries in " + restoreMicros + " us, cache size "
+                + cache.size() + ", hot key catalog:3 present: " + cache.containsKey("catalog:3"));
+        Files.deleteIfExists(snapshot);
+        cache.setMaxCacheSize(50);
+        
         // Demonstrate cache clearing
         System.out.println("\n=== Cache Clear Demo ===");
+
         System.out.println("Cache size before clear: " + cache.size());
         cache.clear();
         System.out.println("Cache size after clear: " + cache.size());
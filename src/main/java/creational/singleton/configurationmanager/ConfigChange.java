@@ -0,0 +1,16 @@
+package creational.singleton.configurationmanager;
+
+/**
+ * One property that differs between two configuration snapshots.
+ * oldValue is null for an added property and newValue is null for a removed one.
+ */
+public record ConfigChange(String key, String oldValue, String newValue) {
+
+    public boolean isAdded() {
+        return oldValue == null;
+    }
+
+    public boolean isRemoved() {
+        return newValue == null;
+    }
+}
@@ -0,0 +1,15 @@
+package creational.singleton.configurationmanager;
+
+import java.util.List;
+
+/**
+ * Notified on the ConfigurationManager notifier thread after a new configuration snapshot
+ * is published, with only the changes matching the key or prefix it was registered for.
+ * Listeners are called one at a time and in publication order, so a slow listener delays
+ * later notifications but never the code that changed the configuration.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+    void onChange(List<ConfigChange> changes, ConfigSnapshot snapshot);
+}
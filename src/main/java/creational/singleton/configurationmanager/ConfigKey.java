@@ -0,0 +1,100 @@
+package creational.singleton.configurationmanager;
+
+import java.util.function.Function;
+
+/**
+ * Precompiled handle for one typed configuration property.
+ *
+ * Every registered key is parsed once per configuration snapshot, and the parsed value
+ * is stored in the key itself whenever a snapshot is published, so {@link #get()} is a
+ * single volatile field load. Keys register with {@link ConfigurationManager#INSTANCE}
+ * when they are created; declare them once, as static final constants.
+ * Use {@link ConfigSnapshot#get(ConfigKey)} when several keys must come from the same snapshot.
+ */
+public final class ConfigKey<T> {
+
+    private final String name;
+    private final T defaultValue;
+    private final Function<String, T> parser;
+    private final int index; // slot of the parsed value in each snapshot
+    private volatile T value;
+
+    ConfigKey(String name, T defaultValue, Function<String, T> parser, int index) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.parser = parser;
+        this.index = index;
+        this.value = defaultValue;
+    }
+
+    public static ConfigKey<String> ofString(String name, String defaultValue) {
+        return of(name, defaultValue, Function.identity());
+    }
+
+    public static ConfigKey<Integer> ofInt(String name, int defaultValue) {
+        return of(name, defaultValue, raw -> Integer.valueOf(raw.trim()));
+    }
+
+    public static ConfigKey<Long> ofLong(String name, long defaultValue) {
+        return of(name, defaultValue, raw -> Long.valueOf(raw.trim()));
+    }
+
+    public static ConfigKey<Boolean> ofBoolean(String name, boolean defaultValue) {
+        return of(name, defaultValue, raw -> Boolean.valueOf(raw.trim()));
+    }
+
+    /**
+     * Key with a custom parser; the parser may throw for invalid values, which then read as the default
+     */
+    public static <T> ConfigKey<T> of(String name, T defaultValue, Function<String, T> parser) {
+        if (name == null || parser == null) {
+            throw new IllegalArgumentException("Key name and parser cannot be null");
+        }
+        return ConfigurationManager.INSTANCE.register(name, defaultValue, parser);
+    }
+
+    /**
+     * Value in the current configuration, or the default if the property is missing or invalid
+     */
+    public T get() {
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    int index() {
+        return index;
+    }
+
+    void set(Object parsed) {
+        @SuppressWarnings("unchecked")
+        T typed = (T) parsed;
+        this.value = typed;
+    }
+
+    /**
+     * Parse a raw property value, falling back to the default when it is missing or invalid
+     */
+    T parse(String raw) {
+        if (raw == null) {
+            return defaultValue;
+        }
+        try {
+            return parser.apply(raw);
+        } catch (RuntimeException e) {
+            System.err.println("Invalid value for key " + name + ": " + raw);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + value;
+    }
+}
@@ -0,0 +1,132 @@
+package creational.singleton.configurationmanager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable view of the configuration at one point in time.
+ *
+ * All registered {@link ConfigKey}s are parsed when the snapshot is built; ad-hoc integer
+ * and boolean lookups by name are parsed on first use and cached for the life of the snapshot.
+ * ConfigurationManager never changes a published snapshot, it swaps in a new one, so
+ * values read from one snapshot are always consistent with each other.
+ */
+public final class ConfigSnapshot {
+
+    private final long version;
+    private final Map<String, String> properties;
+    private final Object[] values; // parsed values of registered keys, by key index
+    private final ConcurrentHashMap<String, OptionalInt> intValues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Boolean> booleanValues = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(long version, Map<String, String> properties, List<ConfigKey<?>> keys) {
+        this.version = version;
+        this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+        this.values = new Object[keys.size()];
+        for (ConfigKey<?> key : keys) {
+            values[key.index()] = key.parse(properties.get(key.getName()));
+        }
+    }
+
+    /**
+     * Increases by one with every published snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getProperty(String key) {
+        return properties.get(key);
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        return properties.getOrDefault(key, defaultValue);
+    }
+
+    public boolean hasProperty(String key) {
+        return properties.containsKey(key);
+    }
+
+    /**
+     * Value of a key as parsed for this snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ConfigKey<T> key) {
+        int index = key.index();
+        if (index < values.length) {
+            return (T) values[index];
+        }
+        return key.parse(properties.get(key.getName())); // key registered after this snapshot was built
+    }
+
+    /**
+     * Integer value of a property, parsed once per snapshot
+     */
+    public int getInt(String key, int defaultValue) {
+        String raw = properties.get(key);
+        if (raw == null) {
+            return defaultValue;
+        }
+        OptionalInt parsed = intValues.get(key);
+        if (parsed == null) {
+            parsed = intValues.computeIfAbsent(key, k -> {
+                try {
+                    return OptionalInt.of(Integer.parseInt(raw));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid integer value for key " + k + ": " + raw);
+                    return OptionalInt.empty();
+                }
+            });
+        }
+        return parsed.orElse(defaultValue);
+    }
+
+    /**
+     * Boolean value of a property, parsed once per snapshot
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String raw = properties.get(key);
+        if (raw == null) {
+            return defaultValue;
+        }
+        Boolean parsed = booleanValues.get(key);
+        if (parsed == null) {
+            parsed = booleanValues.computeIfAbsent(key, k -> Boolean.parseBoolean(raw));
+        }
+        return parsed;
+    }
+
+    /**
+     * Properties that differ from the previous snapshot, ordered by key
+     */
+    List<ConfigChange> diff(ConfigSnapshot previous) {
+        List<ConfigChange> changes = new ArrayList<>();
+        Map<String, String> old = previous.properties;
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            String oldValue = old.get(entry.getKey());
+            if (!entry.getValue().equals(oldValue)) {
+                changes.add(new ConfigChange(entry.getKey(), oldValue, entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, String> entry : old.entrySet()) {
+            if (!properties.containsKey(entry.getKey())) {
+                changes.add(new ConfigChange(entry.getKey(), entry.getValue(), null));
+            }
+        }
+        changes.sort(Comparator.comparing(ConfigChange::key));
+        return changes;
+    }
+
+    /**
+     * All properties of this snapshot, unmodifiable
+     */
+    public Map<String, String> asMap() {
+        return properties;
+    }
+}
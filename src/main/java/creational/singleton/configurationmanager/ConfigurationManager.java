@@ -1,33 +1,81 @@
 package creational.singleton.configurationmanager;
 
 import java.io.*;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Singleton Configuration Manager using Enum-based implementation
- * Thread-safe and serialization-safe singleton for managing application configuration
+ * Thread-safe and serialization-safe singleton for managing application configuration.
+ * The configuration is held in an immutable {@link ConfigSnapshot}; every change builds a
+ * new snapshot and swaps it in atomically, so readers never lock and never see a half-applied
+ * reload. The properties file is watched and reloaded when it changes, and listeners
+ * registered for a key or prefix are told about the properties that actually changed.
  */
 public enum ConfigurationManager {
     INSTANCE;
     
-    private final Map<String, String> configCache;
-    private final Properties properties;
+    // Editors often save a file in several steps; wait for them to finish before reloading
+    private static final long RELOAD_DELAY_MILLIS = 100;
+    
     private final String configFileName = "application.properties";
+    private final Object updateLock = new Object();
+    private final List<ConfigKey<?>> keys; // guarded by updateLock
+    private long version;                  // guarded by updateLock
+    private volatile ConfigSnapshot snapshot;
+    private WatchService watchService;     // guarded by updateLock
+    
+    // Change listeners, matched against the diff of each published snapshot
+    private record PrefixListener(String prefix, ConfigChangeListener listener) {
+    }
+    
+    private final Map<String, List<ConfigChangeListener>> keyListeners = new ConcurrentHashMap<>();
+    private final List<PrefixListener> prefixListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ConfigurationManager-Notifier");
+        t.setDaemon(true);
+        return t;
+    });
     
     // Enum constructor is called only once, ensuring singleton behavior
     ConfigurationManager() {
-        this.configCache = new ConcurrentHashMap<>();
-        this.properties = new Properties();
-        loadDefaultConfiguration();
-        loadConfigurationFromFile();
+        this.keys = new ArrayList<>();
+        publish(loadConfiguration());
+        setHotReloadEnabled(true);
+    }
+    
+    /**
+     * Defaults overridden by the classpath properties file, then by the one in the working directory
+     */
+    private Map<String, String> loadConfiguration() {
+        Map<String, String> configuration = new HashMap<>();
+        loadDefaultConfiguration(configuration);
+        loadConfigurationFromFile(configuration);
+        return configuration;
     }
     
     /**
      * Load default configuration values
      */
-    private void loadDefaultConfiguration() {
+    private void loadDefaultConfiguration(Map<String, String> configCache) {
         // Default application settings
         configCache.put("app.name", "Design Pattern Demo");
         configCache.put("app.version", "1.0.0");
@@ -46,89 +94,233 @@ public enum ConfigurationManager {
     /**
      * Load configuration from properties file if it exists
      */
-    private void loadConfigurationFromFile() {
+    private void loadConfigurationFromFile(Map<String, String> configCache) {
+        boolean found = false;
         try (InputStream input = getClass().getClassLoader().getResourceAsStream(configFileName)) {
             if (input != null) {
-                properties.load(input);
-                // Override default values with file values
-                for (String key : properties.stringPropertyNames()) {
-                    configCache.put(key, properties.getProperty(key));
-                }
-                System.out.println("Configuration loaded from " + configFileName);
-            } else {
-                System.out.println("Configuration file not found, using default values");
+                loadProperties(input, configCache);
+                found = true;
             }
         } catch (IOException e) {
             System.err.println("Error loading configuration file: " + e.getMessage());
         }
+        
+        // A file in the working directory, for example one written by saveConfiguration, wins
+        Path file = Path.of(configFileName);
+        if (Files.isRegularFile(file)) {
+            try (InputStream input = Files.newInputStream(file)) {
+                loadProperties(input, configCache);
+                found = true;
+            } catch (IOException e) {
+                System.err.println("Error loading configuration file: " + e.getMessage());
+            }
+        }
+        
+        if (found) {
+            System.out.println("Configuration loaded from " + configFileName);
+        } else {
+            System.out.println("Configuration file not found, using default values");
+        }
+    }
+    
+    private static void loadProperties(InputStream input, Map<String, String> configCache) throws IOException {
+        Properties properties = new Properties();
+        properties.load(input);
+        // Override default values with file values
+        for (String key : properties.stringPropertyNames()) {
+            configCache.put(key, properties.getProperty(key));
+        }
+    }
+    
+    /**
+     * Build a snapshot of the given properties, parsing every registered key, and make it
+     * current unless nothing changed; listeners are notified of the differences
+     */
+    private ConfigSnapshot publish(Map<String, String> properties) {
+        synchronized (updateLock) {
+            ConfigSnapshot previous = snapshot;
+            ConfigSnapshot next = new ConfigSnapshot(version + 1, properties, keys);
+            List<ConfigChange> changes = previous == null ? List.of() : next.diff(previous);
+            if (previous != null && changes.isEmpty()) {
+                return previous;
+            }
+            version++;
+            snapshot = next;
+            for (ConfigKey<?> key : keys) {
+                key.set(next.get(key));
+            }
+            // Queued under the lock so listeners see snapshots in publication order
+            notifyListeners(changes, next);
+            return next;
+        }
+    }
+    
+    /**
+     * Hand each interested listener its share of the changes, on the notifier thread
+     */
+    private void notifyListeners(List<ConfigChange> changes, ConfigSnapshot next) {
+        if (changes.isEmpty() || (keyListeners.isEmpty() && prefixListeners.isEmpty())) {
+            return;
+        }
+        Map<ConfigChangeListener, List<ConfigChange>> matched = new LinkedHashMap<>();
+        for (ConfigChange change : changes) {
+            List<ConfigChangeListener> listeners = keyListeners.get(change.key());
+            if (listeners != null) {
+                for (ConfigChangeListener listener : listeners) {
+                    addMatch(matched, listener, change);
+                }
+            }
+            for (PrefixListener prefixListener : prefixListeners) {
+                if (change.key().startsWith(prefixListener.prefix())) {
+                    addMatch(matched, prefixListener.listener(), change);
+                }
+            }
+        }
+        
+        matched.forEach((listener, listenerChanges) -> notifier.execute(() -> {
+            try {
+                listener.onChange(Collections.unmodifiableList(listenerChanges), next);
+            } catch (RuntimeException e) {
+                System.err.println("Configuration change listener failed: " + e.getMessage());
+            }
+        }));
+    }
+    
+    private static void addMatch(Map<ConfigChangeListener, List<ConfigChange>> matched,
+                                 ConfigChangeListener listener, ConfigChange change) {
+        List<ConfigChange> listenerChanges = matched.computeIfAbsent(listener, l -> new ArrayList<>());
+        // A listener registered for both a key and its prefix still gets each change once
+        if (listenerChanges.isEmpty() || listenerChanges.get(listenerChanges.size() - 1) != change) {
+            listenerChanges.add(change);
+        }
+    }
+    
+    /**
+     * Apply a change to a copy of the current properties and publish the result
+     */
+    private void update(Consumer<Map<String, String>> change) {
+        synchronized (updateLock) {
+            Map<String, String> properties = new HashMap<>(snapshot.asMap());
+            change.accept(properties);
+            publish(properties);
+        }
+    }
+    
+    /**
+     * Create a key handle; called by the ConfigKey factories
+     */
+    <T> ConfigKey<T> register(String name, T defaultValue, Function<String, T> parser) {
+        synchronized (updateLock) {
+            ConfigKey<T> key = new ConfigKey<>(name, defaultValue, parser, keys.size());
+            keys.add(key);
+            key.set(snapshot.get(key));
+            return key;
+        }
+    }
+    
+    /**
+     * Call listener asynchronously whenever the value of key is added, changed or removed
+     */
+    public void addChangeListener(String key, ConfigChangeListener listener) {
+        if (key == null || listener == null) {
+            throw new IllegalArgumentException("Key and listener cannot be null");
+        }
+        keyListeners.compute(key, (k, listeners) -> {
+            List<ConfigChangeListener> updated = listeners != null ? listeners : new CopyOnWriteArrayList<>();
+            updated.add(listener);
+            return updated;
+        });
+    }
+    
+    /**
+     * Call listener asynchronously whenever properties starting with prefix change; the empty
+     * prefix matches every property
+     */
+    public void addPrefixChangeListener(String prefix, ConfigChangeListener listener) {
+        if (prefix == null || listener == null) {
+            throw new IllegalArgumentException("Prefix and listener cannot be null");
+        }
+        prefixListeners.add(new PrefixListener(prefix, listener));
+    }
+    
+    /**
+     * Unregister a listener from every key and prefix it was added for
+     */
+    public void removeChangeListener(ConfigChangeListener listener) {
+        for (String key : keyListeners.keySet()) {
+            // Per-key compute, so an empty list is never dropped while another listener is being added
+            keyListeners.computeIfPresent(key, (k, listeners) -> {
+                listeners.remove(listener);
+                return listeners.isEmpty() ? null : listeners;
+            });
+        }
+        prefixListeners.removeIf(prefixListener -> prefixListener.listener() == listener);
+    }
+    
+    /**
+     * Current immutable configuration; read several values from one snapshot to get a consistent view
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
     
     /**
      * Get configuration value by key
      */
     public String getProperty(String key) {
-        return configCache.get(key);
+        return snapshot.getProperty(key);
     }
     
     /**
      * Get configuration value with default fallback
      */
     public String getProperty(String key, String defaultValue) {
-        return configCache.getOrDefault(key, defaultValue);
+        return snapshot.getProperty(key, defaultValue);
     }
     
     /**
-     * Get integer property value
+     * Get integer property value, parsed once per configuration snapshot
      */
     public int getIntProperty(String key, int defaultValue) {
-        String value = configCache.get(key);
-        if (value != null) {
-            try {
-                return Integer.parseInt(value);
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid integer value for key " + key + ": " + value);
-            }
-        }
-        return defaultValue;
+        return snapshot.getInt(key, defaultValue);
     }
     
     /**
-     * Get boolean property value
+     * Get boolean property value, parsed once per configuration snapshot
      */
     public boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = configCache.get(key);
-        if (value != null) {
-            return Boolean.parseBoolean(value);
-        }
-        return defaultValue;
+        return snapshot.getBoolean(key, defaultValue);
     }
     
     /**
      * Set configuration property at runtime
      */
     public void setProperty(String key, String value) {
-        configCache.put(key, value);
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Configuration key and value cannot be null");
+        }
+        update(properties -> properties.put(key, value));
     }
     
     /**
      * Remove configuration property
      */
     public void removeProperty(String key) {
-        configCache.remove(key);
+        update(properties -> properties.remove(key));
     }
     
     /**
      * Check if property exists
      */
     public boolean hasProperty(String key) {
-        return configCache.containsKey(key);
+        return snapshot.hasProperty(key);
     }
     
     /**
      * Get all configuration properties
      */
     public Map<String, String> getAllProperties() {
-        return new ConcurrentHashMap<>(configCache);
+        return new ConcurrentHashMap<>(snapshot.asMap());
     }
     
     /**
@@ -136,7 +328,7 @@ public enum ConfigurationManager {
      */
     public Map<String, String> getPropertiesWithPrefix(String prefix) {
         Map<String, String> filteredProperties = new ConcurrentHashMap<>();
-        for (Map.Entry<String, String> entry : configCache.entrySet()) {
+        for (Map.Entry<String, String> entry : snapshot.asMap().entrySet()) {
             if (entry.getKey().startsWith(prefix)) {
                 filteredProperties.put(entry.getKey(), entry.getValue());
             }
@@ -150,7 +342,7 @@ public enum ConfigurationManager {
     public void saveConfiguration() {
         try (OutputStream output = new FileOutputStream(configFileName)) {
             Properties saveProps = new Properties();
-            saveProps.putAll(configCache);
+            saveProps.putAll(snapshot.asMap());
             saveProps.store(output, "Application Configuration - Generated by ConfigurationManager");
             System.out.println("Configuration saved to " + configFileName);
         } catch (IOException e) {
@@ -162,18 +354,98 @@ public enum ConfigurationManager {
      * Reload configuration from file
      */
     public void reloadConfiguration() {
-        configCache.clear();
-        loadDefaultConfiguration();
-        loadConfigurationFromFile();
+        publish(loadConfiguration());
         System.out.println("Configuration reloaded");
     }
     
+    /**
+     * Watch the properties file in the working directory and reload it whenever it is
+     * created, modified or deleted; enabled by default
+     */
+    public void setHotReloadEnabled(boolean enabled) {
+        synchronized (updateLock) {
+            if (enabled == (watchService != null)) {
+                return;
+            }
+            if (!enabled) {
+                try {
+                    watchService.close(); // wakes the watcher thread, which then exits
+                } catch (IOException e) {
+                    System.err.println("Error stopping configuration watcher: " + e.getMessage());
+                }
+                watchService = null;
+                return;
+            }
+            
+            Path file = Path.of(configFileName).toAbsolutePath();
+            try {
+                WatchService service = file.getFileSystem().newWatchService();
+                file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                Thread watcher = new Thread(() -> watch(service, file.getFileName()), "ConfigurationManager-Watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+                watchService = service;
+            } catch (IOException e) {
+                System.err.println("Configuration hot reload disabled: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Check whether the properties file is being watched
+     */
+    public boolean isHotReloadEnabled() {
+        synchronized (updateLock) {
+            return watchService != null;
+        }
+    }
+    
+    /**
+     * Watcher thread: reload after events for the properties file, coalescing bursts
+     */
+    private void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = containsFile(key, fileName);
+                if (!key.reset()) {
+                    return; // the directory is gone
+                }
+                if (!changed) {
+                    continue;
+                }
+                Thread.sleep(RELOAD_DELAY_MILLIS);
+                WatchKey more;
+                while ((more = service.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                reloadConfiguration();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // hot reload was disabled
+        }
+    }
+    
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        return found;
+    }
+    
     /**
      * Print all configuration properties
      */
     public void printConfiguration() {
         System.out.println("=== Current Configuration ===");
-        configCache.entrySet().stream()
+        snapshot.asMap().entrySet().stream()
                 .sorted(Map.Entry.comparingByKey())
                 .forEach(entry -> System.out.println(entry.getKey() + " = " + entry.getValue()));
     }
@@ -1,5 +1,9 @@
 package creational.singleton.configurationmanager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 
 /**
@@ -31,6 +35,32 @@ public class ZMain {
         System.out.println("Non-existent property: " + config.getProperty("non.existent", "default_value"));
         System.out.println();
         
+        // Demonstrate precompiled typed keys: parsed once per snapshot, read with one field load
+        System.out.println("=== Typed Configuration Keys ===");
+        ConfigKey<Integer> serverPort = ConfigKey.ofInt("server.port", 8080);
+        ConfigKey<Boolean> cacheEnabled = ConfigKey.ofBoolean("cache.enabled", false);
+        System.out.println("server.port = " + serverPort.get() + ", cache.enabled = " + cacheEnabled.get());
+        
+        config.setProperty("server.port", "9090");
+        System.out.println("After setProperty: server.port = " + serverPort.get()
+                + " (snapshot version " + config.getSnapshot().getVersion() + ")");
+        System.out.println();
+        
+        // Demonstrate change listeners: only the affected listeners hear about a change
+        System.out.println("=== Change Listeners ===");
+        config.addPrefixChangeListener("cache.", (changes, snapshot) ->
+                changes.forEach(change -> System.out.println("  cache listener: " + change.key() + " "
+                        + change.oldValue() + " -> " + change.newValue())));
+        config.setProperty("cache.ttl", "600");
+        config.setProperty("cache.ttl", "600"); // same value, nothing to notify
+        config.setProperty("server.timeout", "45000"); // no listener for this key
+        try {
+            Thread.sleep(200); // listeners run on the notifier thread
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println();
+        
         // Demonstrate runtime property modification
         System.out.println("=== Runtime Property Modification ===");
         System.out.println("Original logging level: " + config.getProperty("logging.level"));
@@ -117,6 +147,19 @@ public class ZMain {
         System.out.println("\n=== Configuration Persistence ===");
         config.saveConfiguration();
         
+        // Demonstrate hot reload: editing the saved file swaps in a new snapshot
+        System.out.println("\n=== Hot Reload ===");
+        try {
+            Files.writeString(Path.of("application.properties"), "server.port=7070" + System.lineSeparator(),
+                    StandardOpenOption.APPEND);
+            Thread.sleep(500);
+        } catch (IOException e) {
+            System.err.println("Could not edit configuration file: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("server.port after editing the file: " + serverPort.get());
+        
         System.out.println("\nConfiguration Manager Demo completed!");
     }
     
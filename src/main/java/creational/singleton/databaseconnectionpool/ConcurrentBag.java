@@ -0,0 +1,172 @@
+package creational.singleton.databaseconnectionpool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free container of pool entries, modelled on the bag used by fast JDBC pools.
+ *
+ * Borrowing tries, in order: the entries this thread returned recently (thread-local, so
+ * a thread usually gets its own warm connection back without touching shared state), a
+ * CAS scan of the shared list, and finally a fair SynchronousQueue where waiting borrowers
+ * are served first in, first out. A returned entry is handed straight to the oldest waiter
+ * when there is one. Nothing on these paths takes a monitor, so virtual threads never pin;
+ * virtual threads skip the thread-local list, since there are too many of them to keep one each.
+ */
+final class ConcurrentBag {
+
+    private static final int THREAD_LIST_SIZE = 16;
+
+    private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PoolEntry>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LIST_SIZE));
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * Take an idle entry, waiting up to timeoutNanos for one to be returned or added;
+     * null if none became available in time
+     */
+    PoolEntry borrow(long timeoutNanos) throws InterruptedException {
+        if (!Thread.currentThread().isVirtual()) {
+            List<PoolEntry> recent = threadList.get();
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                PoolEntry entry = recent.remove(i);
+                if (entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                    return entry;
+                }
+            }
+        }
+
+        PoolEntry idle = scanSharedList();
+        if (idle != null || timeoutNanos <= 0) {
+            return idle;
+        }
+
+        // Scan again once counted as a waiter: anything released from now on is offered to us
+        waiters.incrementAndGet();
+        try {
+            idle = scanSharedList();
+            if (idle != null) {
+                return idle;
+            }
+
+            long deadline = System.nanoTime() + timeoutNanos;
+            long remaining = timeoutNanos;
+            while (remaining > 0) {
+                PoolEntry entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.compareAndSet(PoolEntry.HANDOFF, PoolEntry.IN_USE)
+                        || entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                    return entry;
+                }
+                remaining = deadline - System.nanoTime(); // another borrower got there first
+            }
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private PoolEntry scanSharedList() {
+        for (PoolEntry entry : sharedList) {
+            if (entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return a borrowed entry; false if it was not in use
+     */
+    boolean requite(PoolEntry entry) {
+        // Direct handoff: the entry never becomes idle, so nobody can barge ahead of the waiter
+        if (waiters.get() > 0 && entry.compareAndSet(PoolEntry.IN_USE, PoolEntry.HANDOFF)) {
+            if (handoffQueue.offer(entry)) {
+                return true;
+            }
+            entry.setState(PoolEntry.NOT_IN_USE);
+        } else if (!entry.compareAndSet(PoolEntry.IN_USE, PoolEntry.NOT_IN_USE)) {
+            return false;
+        }
+
+        if (offerToWaiters(entry)) {
+            return true;
+        }
+        if (!Thread.currentThread().isVirtual()) {
+            List<PoolEntry> recent = threadList.get();
+            if (recent.size() < THREAD_LIST_SIZE) {
+                recent.add(entry);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add a new entry; an idle one is offered to waiting borrowers first
+     */
+    void add(PoolEntry entry) {
+        sharedList.add(entry);
+        offerToWaiters(entry);
+    }
+
+    /**
+     * Remove an entry that the caller has borrowed or reserved
+     */
+    boolean remove(PoolEntry entry) {
+        if (!entry.compareAndSet(PoolEntry.IN_USE, PoolEntry.REMOVED)
+                && !entry.compareAndSet(PoolEntry.RESERVED, PoolEntry.REMOVED)) {
+            return false;
+        }
+        return sharedList.remove(entry);
+    }
+
+    /**
+     * Take an idle entry out of circulation without borrowing it
+     */
+    boolean reserve(PoolEntry entry) {
+        return entry.compareAndSet(PoolEntry.NOT_IN_USE, PoolEntry.RESERVED);
+    }
+
+    /**
+     * Offer an idle entry to waiting borrowers; a borrower may be between its shared-list
+     * scan and the queue, so keep offering while anyone waits. True once it was taken.
+     */
+    private boolean offerToWaiters(PoolEntry entry) {
+        while (waiters.get() > 0) {
+            if (entry.getState() != PoolEntry.NOT_IN_USE || handoffQueue.offer(entry)) {
+                return true;
+            }
+            Thread.yield();
+        }
+        return false;
+    }
+
+    List<PoolEntry> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    int getCount(int state) {
+        int count = 0;
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return sharedList.size();
+    }
+
+    int getWaitingThreadCount() {
+        return waiters.get();
+    }
+}
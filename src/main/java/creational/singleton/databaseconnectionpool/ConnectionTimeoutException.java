@@ -0,0 +1,12 @@
+package creational.singleton.databaseconnectionpool;
+
+/**
+ * Thrown by getConnection when no connection became available in time, so callers can
+ * tell an exhausted pool from a connection that could not be opened
+ */
+public class ConnectionTimeoutException extends RuntimeException {
+
+    public ConnectionTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -3,32 +3,93 @@ package creational.singleton.databaseconnectionpool;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Singleton Database Connection Pool
  * Manages a pool of database connections using the Singleton pattern
  * to ensure only one connection pool exists throughout the application.
+ * Connections live in a lock-free {@link ConcurrentBag}, so borrowing and returning
+ * scale across cores and never pin virtual threads. When every connection is in use,
+ * {@link #getConnection(Duration)} waits in a first-in, first-out queue and receives a
+ * released connection directly.
+ *
+ * Borrowers get a wrapper around the physical connection: closing it returns the connection
+ * to the pool, and prepareStatement(String) is served from a per-connection LRU cache of
+ * prepared statements, to which closed statements return.
+ *
+ * A background housekeeper closes connections that sat idle too long or outlived their
+ * maximum lifetime, opens replacements, and reports connections held past the leak
+ * detection threshold. Connections that were not used recently are validated before
+ * they are handed out.
  */
 public class DatabaseConnectionPool {
     // Volatile keyword ensures visibility of changes across threads
     private static volatile DatabaseConnectionPool instance;
     
-    private final List<Connection> connectionPool;
-    private final List<Connection> usedConnections = new ArrayList<>();
-    private final int INITIAL_POOL_SIZE = 10;
-    private final int MAX_POOL_SIZE = 20;
+    private final ConcurrentBag bag;
+    private final AtomicInteger totalConnections; // includes connections being opened
+    private static final int DEFAULT_MIN_POOL_SIZE = 10;
+    private static final int DEFAULT_MAX_POOL_SIZE = 20;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 25;
     
-    // Database connection parameters
-    private final String url = "jdbc:h2:mem:testdb";
-    private final String username = "sa";
-    private final String password = "";
+    private volatile int minPoolSize = DEFAULT_MIN_POOL_SIZE;
+    private volatile int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+    private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    
+    // Lifecycle settings, in nanoseconds; zero disables the check
+    private volatile long validationBypassNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private volatile long idleTimeoutNanos = TimeUnit.MINUTES.toNanos(10);
+    private volatile long maxLifetimeNanos = TimeUnit.MINUTES.toNanos(30);
+    private volatile long leakDetectionThresholdNanos = 0;
+    
+    // Housekeeping
+    private final ScheduledExecutorService housekeeper;
+    private ScheduledFuture<?> housekeepingTask;
+    private final AtomicBoolean fillPending = new AtomicBoolean();
+    
+    // Acquire statistics
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder retiredCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    final LongAdder statementCacheHits = new LongAdder();   // updated by PooledConnection
+    final LongAdder statementCacheMisses = new LongAdder();
+    
+    // Database connection parameters, read from these system properties when the pool is created
+    public static final String URL_PROPERTY = "db.url";
+    public static final String USERNAME_PROPERTY = "db.username";
+    public static final String PASSWORD_PROPERTY = "db.password";
+    private final String url = System.getProperty(URL_PROPERTY, "jdbc:h2:mem:testdb");
+    private final String username = System.getProperty(USERNAME_PROPERTY, "sa");
+    private final String password = System.getProperty(PASSWORD_PROPERTY, "");
     
     // Private constructor prevents instantiation from outside
     private DatabaseConnectionPool() {
-        connectionPool = new ArrayList<>(INITIAL_POOL_SIZE);
+        bag = new ConcurrentBag();
+        totalConnections = new AtomicInteger();
         initializeConnectionPool();
+        
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DatabaseConnectionPool-Housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeepingTask = housekeeper.scheduleAtFixedRate(this::housekeep, 30, 30, TimeUnit.SECONDS);
     }
     
     /**
@@ -53,9 +114,98 @@ public class DatabaseConnectionPool {
      * Initialize the connection pool with initial connections
      */
     private void initializeConnectionPool() {
-        for (int i = 0; i < INITIAL_POOL_SIZE; i++) {
-            connectionPool.add(createConnection());
+        for (int i = 0; i < minPoolSize; i++) {
+            totalConnections.incrementAndGet();
+            addEntry(createConnection(), PoolEntry.NOT_IN_USE);
+        }
+    }
+    
+    /**
+     * Change the pool bounds. Connections up to the new minimum, and for threads already
+     * waiting if the maximum grew, are opened in the background; connections above a
+     * lowered maximum are closed as they go idle.
+     */
+    public void setPoolSize(int minSize, int maxSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool size requires 0 <= minSize <= maxSize and maxSize >= 1");
+        }
+        minPoolSize = minSize;
+        maxPoolSize = maxSize;
+        requestFill();
+    }
+    
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+    
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+    
+    /**
+     * Prepared statements kept per connection; zero turns statement caching off
+     */
+    public void setStatementCacheSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
         }
+        statementCacheSize = size;
+    }
+    
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+    
+    /**
+     * Connections used within this window are handed out without calling isValid; zero validates every borrow
+     */
+    public void setValidationBypassWindow(Duration window) {
+        validationBypassNanos = toNanos(window, "Validation bypass window");
+    }
+    
+    /**
+     * Idle connections above the minimum pool size are closed after this long; zero keeps them
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        idleTimeoutNanos = toNanos(idleTimeout, "Idle timeout");
+    }
+    
+    /**
+     * Connections are retired after this long, less a random 0-2.5% so they do not all
+     * retire at once; borrowed connections are closed when released. Zero keeps them.
+     */
+    public void setMaxLifetime(Duration maxLifetime) {
+        maxLifetimeNanos = toNanos(maxLifetime, "Max lifetime");
+    }
+    
+    /**
+     * Report connections held longer than this, with the stack trace of the code that
+     * borrowed them; zero turns leak detection off
+     */
+    public void setLeakDetectionThreshold(Duration threshold) {
+        leakDetectionThresholdNanos = toNanos(threshold, "Leak detection threshold");
+    }
+    
+    /**
+     * How often the housekeeper runs; 30 seconds by default
+     */
+    public synchronized void setHousekeepingPeriod(Duration period) {
+        long nanos = toNanos(period, "Housekeeping period");
+        if (nanos == 0) {
+            throw new IllegalArgumentException("Housekeeping period must be positive");
+        }
+        if (housekeeper.isShutdown()) {
+            throw new IllegalStateException("Connection pool has been closed");
+        }
+        housekeepingTask.cancel(false);
+        housekeepingTask = housekeeper.scheduleAtFixedRate(this::housekeep, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private static long toNanos(Duration duration, String name) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException(name + " cannot be null or negative");
+        }
+        return toNanos(duration);
     }
     
     /**
@@ -69,59 +219,298 @@ public class DatabaseConnectionPool {
         }
     }
     
+    private PoolEntry addEntry(Connection connection, int state) {
+        PoolEntry entry = new PoolEntry(connection, state, this);
+        bag.add(entry);
+        return entry;
+    }
+    
     /**
-     * Get a connection from the pool
+     * Get a connection from the pool, failing at once if the pool is at its maximum size
      */
-    public synchronized Connection getConnection() {
-        if (connectionPool.isEmpty()) {
-            if (usedConnections.size() < MAX_POOL_SIZE) {
-                connectionPool.add(createConnection());
-            } else {
-                throw new RuntimeException("Maximum pool size reached, no available connections!");
+    public Connection getConnection() {
+        return getConnection(Duration.ZERO);
+    }
+    
+    /**
+     * Get a connection from the pool, waiting up to timeout for one to be released when the
+     * pool is at its maximum size. Waiting threads are served in arrival order.
+     */
+    public Connection getConnection(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be null or negative");
+        }
+        long start = System.nanoTime();
+        long timeoutNanos = toNanos(timeout);
+        try {
+            while (true) {
+                PoolEntry entry = bag.borrow(0);
+                if (entry == null) {
+                    entry = growPool();
+                }
+                if (entry == null && timeoutNanos > 0) {
+                    long remaining = timeoutNanos - (System.nanoTime() - start);
+                    entry = remaining > 0 ? bag.borrow(remaining) : null;
+                }
+                if (entry == null) {
+                    timeoutCount.increment();
+                    if (timeoutNanos == 0) {
+                        throw new ConnectionTimeoutException("Maximum pool size reached, no available connections!");
+                    }
+                    throw new ConnectionTimeoutException(String.format("Timed out after %d ms waiting for a connection, pool size %d",
+                            (System.nanoTime() - start) / 1_000_000, maxPoolSize));
+                }
+                if (checkOut(entry)) {
+                    long waited = System.nanoTime() - start;
+                    acquireCount.increment();
+                    acquireWaitNanos.add(waited);
+                    maxAcquireWaitNanos.accumulateAndGet(waited, Math::max);
+                    return entry.pooled.checkOut();
+                }
+                closeEntry(entry);
+                requestFill();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while getting a connection", e);
+        }
+    }
+    
+    private static long toNanos(Duration timeout) {
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
         }
-        
-        Connection connection = connectionPool.remove(connectionPool.size() - 1);
-        usedConnections.add(connection);
-        return connection;
     }
     
     /**
-     * Return a connection back to the pool
+     * Validate a borrowed entry unless it was used within the bypass window, and record
+     * who borrowed it; false if it is broken or retired
      */
-    public synchronized boolean releaseConnection(Connection connection) {
-        if (connection != null && usedConnections.remove(connection)) {
-            connectionPool.add(connection);
-            return true;
+    private boolean checkOut(PoolEntry entry) {
+        if (entry.evicted) {
+            retiredCount.increment();
+            return false;
         }
-        return false;
+        long now = System.nanoTime();
+        if (now - entry.lastAccessedNanos > validationBypassNanos) {
+            try {
+                if (!entry.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    validationFailures.increment();
+                    return false;
+                }
+            } catch (SQLException e) {
+                validationFailures.increment();
+                return false;
+            }
+            entry.lastAccessedNanos = now;
+        }
+        entry.borrowedNanos = now;
+        if (leakDetectionThresholdNanos > 0) {
+            entry.borrowerName = Thread.currentThread().getName();
+            entry.acquiredAt = new Exception();
+            entry.leakReported = false;
+        }
+        return true;
     }
     
     /**
-     * Get current pool statistics
+     * Claim room for one more connection; false if the pool is at its maximum size
      */
-    public String getPoolStatistics() {
-        return String.format("Available connections: %d, Used connections: %d, Total capacity: %d",
-                connectionPool.size(), usedConnections.size(), MAX_POOL_SIZE);
+    private boolean reserveSlot() {
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= maxPoolSize) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        return true;
+    }
+    
+    /**
+     * Open one more connection for the caller if the pool is below its maximum size
+     */
+    private PoolEntry growPool() {
+        if (!reserveSlot()) {
+            return null;
+        }
+        try {
+            return addEntry(createConnection(), PoolEntry.IN_USE);
+        } catch (RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
     }
     
     /**
-     * Close all connections in the pool
+     * Return a connection back to the pool; closing the connection does the same
      */
-    public synchronized void closeAllConnections() {
-        closeConnections(connectionPool);
-        closeConnections(usedConnections);
+    public boolean releaseConnection(Connection connection) {
+        PoolEntry entry = PooledConnection.checkIn(connection);
+        if (entry == null || entry.getState() != PoolEntry.IN_USE) {
+            return false;
+        }
+        entry.pooled.reset();
+        entry.lastAccessedNanos = System.nanoTime();
+        if (entry.leakReported) {
+            System.err.println(String.format("Previously reported leaked connection returned by %s after %d ms",
+                    Thread.currentThread().getName(), (entry.lastAccessedNanos - entry.borrowedNanos) / 1_000_000));
+        }
+        entry.acquiredAt = null;
+        if (entry.evicted || totalConnections.get() > maxPoolSize) {
+            if (closeEntry(entry)) {
+                if (entry.evicted) {
+                    retiredCount.increment();
+                }
+                requestFill();
+                return true;
+            }
+            return false;
+        }
+        return bag.requite(entry);
+    }
+    
+    /**
+     * Remove a borrowed or reserved entry from the pool and close its connection
+     */
+    private boolean closeEntry(PoolEntry entry) {
+        if (!bag.remove(entry)) {
+            return false;
+        }
+        totalConnections.decrementAndGet();
+        entry.pooled.closeStatements();
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+        return true;
     }
     
-    private void closeConnections(List<Connection> connections) {
-        for (Connection connection : connections) {
+    /**
+     * Periodic maintenance: retire expired and surplus idle connections, flag expired
+     * borrowed ones, report leaks, then refill
+     */
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+            long idleTimeout = idleTimeoutNanos;
+            long maxLifetime = maxLifetimeNanos;
+            long leakThreshold = leakDetectionThresholdNanos;
+            int surplus = totalConnections.get() - minPoolSize;
+            
+            for (PoolEntry entry : bag.values()) {
+                boolean expired = maxLifetime > 0
+                        && now - entry.createdNanos > maxLifetime - (long) (maxLifetime * entry.lifetimeVariance);
+                int state = entry.getState();
+                if (state == PoolEntry.NOT_IN_USE) {
+                    boolean idle = idleTimeout > 0 && now - entry.lastAccessedNanos > idleTimeout;
+                    if ((expired || surplus > 0 && (idle || totalConnections.get() > maxPoolSize))
+                            && bag.reserve(entry) && closeEntry(entry)) {
+                        surplus--;
+                        if (expired) {
+                            retiredCount.increment();
+                        }
+                    }
+                } else if (state == PoolEntry.IN_USE) {
+                    if (expired) {
+                        entry.evicted = true;
+                    }
+                    if (leakThreshold > 0 && !entry.leakReported && now - entry.borrowedNanos > leakThreshold) {
+                        reportLeak(entry, now);
+                    }
+                }
+            }
+            fillPool();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+    
+    private void reportLeak(PoolEntry entry, long now) {
+        Exception acquiredAt = entry.acquiredAt;
+        if (acquiredAt == null) {
+            return; // borrowed before leak detection was turned on, or just released
+        }
+        entry.leakReported = true;
+        leakCount.increment();
+        Exception leak = new Exception(String.format("Apparent connection leak: held by %s for %d ms, acquired at",
+                entry.borrowerName, (now - entry.borrowedNanos) / 1_000_000));
+        StackTraceElement[] trace = acquiredAt.getStackTrace();
+        int caller = 0;
+        while (caller < trace.length - 1 && trace[caller].getClassName().equals(DatabaseConnectionPool.class.getName())) {
+            caller++;
+        }
+        leak.setStackTrace(Arrays.copyOfRange(trace, caller, trace.length));
+        leak.printStackTrace();
+    }
+    
+    /**
+     * Refill on the housekeeper thread, so borrowers never wait for replacement connections
+     */
+    private void requestFill() {
+        if (fillPending.compareAndSet(false, true)) {
             try {
-                connection.close();
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+                housekeeper.execute(() -> {
+                    fillPending.set(false);
+                    fillPool();
+                });
+            } catch (RejectedExecutionException e) {
+                fillPending.set(false); // pool closed, connections are only opened on demand
             }
         }
-        connections.clear();
+    }
+    
+    /**
+     * Open connections up to the minimum pool size, and for waiting threads while below the maximum
+     */
+    private void fillPool() {
+        while ((totalConnections.get() < minPoolSize
+                || bag.getWaitingThreadCount() > bag.getCount(PoolEntry.NOT_IN_USE)) && reserveSlot()) {
+            try {
+                addEntry(createConnection(), PoolEntry.NOT_IN_USE);
+            } catch (RuntimeException e) {
+                totalConnections.decrementAndGet();
+                System.err.println("Error refilling connection pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Get current pool statistics
+     */
+    public String getPoolStatistics() {
+        int available = bag.getCount(PoolEntry.NOT_IN_USE);
+        long acquires = acquireCount.sum();
+        long hits = statementCacheHits.sum();
+        long lookups = hits + statementCacheMisses.sum();
+        int cachedStatements = 0;
+        for (PoolEntry entry : bag.values()) {
+            cachedStatements += entry.pooled.getCachedStatementCount();
+        }
+        return String.format("Available connections: %d, Used connections: %d, Total capacity: %d, "
+                        + "Waiting threads: %d, Acquires: %d, Timeouts: %d, Avg wait: %.3f ms, Max wait: %.3f ms, "
+                        + "Validation failures: %d, Retired: %d, Leaks: %d, "
+                        + "Cached statements: %d, Statement cache hit rate: %.1f%%",
+                available, bag.size() - available, maxPoolSize, bag.getWaitingThreadCount(), acquires,
+                timeoutCount.sum(), acquires == 0 ? 0.0 : acquireWaitNanos.sum() / (double) acquires / 1_000_000,
+                maxAcquireWaitNanos.get() / 1_000_000.0, validationFailures.sum(), retiredCount.sum(), leakCount.sum(),
+                cachedStatements, lookups == 0 ? 0.0 : hits * 100.0 / lookups);
+    }
+    
+    /**
+     * Close all connections in the pool, including borrowed ones, and stop background
+     * maintenance; connections are still opened on demand afterwards
+     */
+    public void closeAllConnections() {
+        housekeeper.shutdownNow();
+        for (PoolEntry entry : bag.values()) {
+            entry.setState(PoolEntry.IN_USE); // claim borrowed and idle entries alike so remove succeeds
+            closeEntry(entry);
+        }
     }
     
     // Prevent cloning
@@ -129,4 +518,4 @@ public class DatabaseConnectionPool {
     protected Object clone() throws CloneNotSupportedException {
         throw new CloneNotSupportedException("Singleton instance cannot be cloned");
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
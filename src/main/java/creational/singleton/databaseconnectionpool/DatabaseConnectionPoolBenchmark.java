@@ -0,0 +1,166 @@
+package creational.singleton.databaseconnectionpool;
+
+import creational.singleton.cachemanager.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load harness for DatabaseConnectionPool, run against the in-process {@link StubDriver}.
+ *
+ * Every scenario starts a number of borrowers (1 to 1000) on platform or virtual threads.
+ * Each borrower repeatedly gets a connection with a timeout, runs one prepared query that
+ * sleeps for the stub's query latency, and closes the connection. The harness prints
+ * throughput, percentiles of the time spent in getConnection, and the share of borrows
+ * that timed out; other failures are counted as errors. Each scenario runs after a warm-up pass, on the same pool instance.
+ *
+ * Usage: DatabaseConnectionPoolBenchmark [measureMillis] [warmupMillis] [queryLatencyMs] [timeoutMillis]
+ */
+public class DatabaseConnectionPoolBenchmark {
+
+    private static final int[] BORROWER_COUNTS = {1, 10, 100, 1000};
+    private static final String QUERY = "SELECT id, name FROM users WHERE id = ?";
+
+    enum ThreadKind { PLATFORM, VIRTUAL }
+
+    public static void main(String[] args) throws InterruptedException {
+        long measureMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long warmupMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        double queryLatencyMs = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+        Duration timeout = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 500);
+
+        StubDriver.register();
+        System.setProperty(DatabaseConnectionPool.URL_PROPERTY,
+                StubDriver.URL_PREFIX + "benchmark?connectLatencyMs=2&queryLatencyMs=" + queryLatencyMs);
+        DatabaseConnectionPool pool = DatabaseConnectionPool.getInstance();
+
+        System.out.println("=== DatabaseConnectionPool Benchmark ===");
+        System.out.printf("pool=%d-%d, query latency=%sms, timeout=%dms, measure=%dms, warmup=%dms, cores=%d%n%n",
+                pool.getMinPoolSize(), pool.getMaxPoolSize(), queryLatencyMs, timeout.toMillis(),
+                measureMillis, warmupMillis, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %9s %12s %10s %10s %10s %10s %10s %9s %7s%n", "threads", "borrowers", "ops/s",
+                "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "timeout%", "errors");
+
+        for (ThreadKind kind : ThreadKind.values()) {
+            for (int borrowers : BORROWER_COUNTS) {
+                run(pool, kind, borrowers, timeout, warmupMillis); // warm-up, discarded
+                Result result = run(pool, kind, borrowers, timeout, measureMillis);
+                LatencyHistogram.Snapshot latency = result.latency;
+                System.out.printf("%-9s %9d %,12.0f %10.1f %10.1f %10.1f %10.1f %10.1f %9.2f %7d%n",
+                        kind, borrowers, result.opsPerSecond(), latency.getPercentileNanos(50) / 1000.0,
+                        latency.getPercentileNanos(90) / 1000.0, latency.getPercentileNanos(99) / 1000.0,
+                        latency.getPercentileNanos(99.9) / 1000.0, latency.getMaxNanos() / 1000.0,
+                        result.timeoutPercent(), result.errors);
+            }
+        }
+
+        System.out.println();
+        System.out.println(pool.getPoolStatistics());
+        pool.closeAllConnections();
+    }
+
+    private static Result run(DatabaseConnectionPool pool, ThreadKind kind, int borrowerCount,
+                              Duration timeout, long durationMillis) throws InterruptedException {
+        Thread.Builder builder = kind == ThreadKind.VIRTUAL
+                ? Thread.ofVirtual().name("DatabaseConnectionPoolBenchmark-", 0)
+                : Thread.ofPlatform().name("DatabaseConnectionPoolBenchmark-", 0);
+        Borrower[] borrowers = new Borrower[borrowerCount];
+        CountDownLatch start = new CountDownLatch(1);
+        LatencyHistogram latency = new LatencyHistogram(); // striped, so borrowers share it
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < borrowerCount; i++) {
+            borrowers[i] = new Borrower(pool, timeout, start, latency);
+            threads.add(builder.start(borrowers[i]));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        TimeUnit.MILLISECONDS.sleep(durationMillis);
+        for (Borrower borrower : borrowers) {
+            borrower.running = false;
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long ops = 0;
+        long timeouts = 0;
+        long errors = 0;
+        for (Borrower borrower : borrowers) {
+            ops += borrower.ops;
+            timeouts += borrower.timeouts;
+            errors += borrower.errors;
+        }
+        return new Result(ops, timeouts, errors, elapsedNanos, latency.snapshot());
+    }
+
+    private static final class Borrower implements Runnable {
+        private final DatabaseConnectionPool pool;
+        private final Duration timeout;
+        private final CountDownLatch start;
+        private final LatencyHistogram latency;
+        volatile boolean running = true;
+        long ops;
+        long timeouts;
+        long errors;
+
+        Borrower(DatabaseConnectionPool pool, Duration timeout, CountDownLatch start, LatencyHistogram latency) {
+            this.pool = pool;
+            this.timeout = timeout;
+            this.start = start;
+            this.latency = latency;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            while (running) {
+                long begin = System.nanoTime();
+                Connection connection;
+                try {
+                    connection = pool.getConnection(timeout);
+                } catch (ConnectionTimeoutException e) {
+                    timeouts++;
+                    continue;
+                } catch (RuntimeException e) {
+                    errors++; // e.g. the driver could not open a connection
+                    continue;
+                }
+                latency.record(System.nanoTime() - begin);
+
+                // Closing the pooled connection returns it to the pool
+                try (connection; PreparedStatement statement = connection.prepareStatement(QUERY)) {
+                    statement.setInt(1, 42);
+                    statement.executeQuery().close();
+                    ops++;
+                } catch (SQLException e) {
+                    errors++;
+                }
+            }
+        }
+    }
+
+    private record Result(long ops, long timeouts, long errors, long elapsedNanos, LatencyHistogram.Snapshot latency) {
+        double opsPerSecond() {
+            return ops * 1e9 / elapsedNanos;
+        }
+
+        double timeoutPercent() {
+            long attempts = ops + timeouts + errors;
+            return attempts == 0 ? 0 : timeouts * 100.0 / attempts;
+        }
+    }
+}
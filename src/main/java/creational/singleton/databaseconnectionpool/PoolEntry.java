@@ -0,0 +1,52 @@
+package creational.singleton.databaseconnectionpool;
+
+import java.sql.Connection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pooled connection, the wrapper that hands out a handle for it per checkout, and its bag state. Ownership changes
+ * only through compareAndSet on the state, so borrowing never needs a lock.
+ */
+final class PoolEntry {
+
+    static final int NOT_IN_USE = 0;
+    static final int IN_USE = 1;
+    static final int HANDOFF = 2;   // released straight to a waiting borrower
+    static final int RESERVED = -2; // taken out of circulation, e.g. for eviction
+    static final int REMOVED = -1;
+
+    final Connection connection;      // the physical connection
+    final PooledConnection pooled;    // its wrapper, which hands each borrower a fresh handle
+    final long createdNanos;
+    final double lifetimeVariance; // share of the max lifetime cut off, so connections opened together retire apart
+    private final AtomicInteger state;
+
+    volatile long lastAccessedNanos; // last release or successful validation
+    volatile long borrowedNanos;
+    volatile String borrowerName;    // set with acquiredAt, only while leak detection is on
+    volatile Exception acquiredAt;
+    volatile boolean leakReported;
+    volatile boolean evicted;        // close on release instead of returning to the bag
+
+    PoolEntry(Connection connection, int initialState, DatabaseConnectionPool pool) {
+        this.connection = connection;
+        this.pooled = new PooledConnection(this, pool);
+        this.createdNanos = System.nanoTime();
+        this.lifetimeVariance = ThreadLocalRandom.current().nextDouble(0.025);
+        this.state = new AtomicInteger(initialState);
+        this.lastAccessedNanos = createdNanos;
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    void setState(int newState) {
+        state.set(newState);
+    }
+
+    boolean compareAndSet(int expected, int newState) {
+        return state.compareAndSet(expected, newState);
+    }
+}
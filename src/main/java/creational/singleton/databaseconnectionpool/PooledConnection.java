@@ -0,0 +1,252 @@
+package creational.singleton.databaseconnectionpool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wrapper state for one physical connection: its statement cache and the handle of the
+ * current checkout.
+ *
+ * Every checkout gets a fresh Connection handle. prepareStatement(String) on it is served
+ * from the connection's {@link StatementCache}, and closing the returned statement puts it
+ * back in the cache. Closing the handle returns the connection to the pool; after that the
+ * handle reports itself closed and rejects every call, so a borrower holding on to it can
+ * neither use nor release the connection again once someone else has borrowed it. Every
+ * other call goes straight to the physical connection.
+ */
+final class PooledConnection {
+
+    // Statement setters whose effect would outlive the checkout; a statement they were called on is not cached
+    private static final Set<String> STATEMENT_SETTINGS = Set.of("setMaxRows", "setLargeMaxRows", "setQueryTimeout",
+            "setFetchSize", "setFetchDirection", "setMaxFieldSize", "setEscapeProcessing", "setPoolable",
+            "setCursorName", "closeOnCompletion");
+
+    private final PoolEntry entry;
+    private final DatabaseConnectionPool pool;
+    private final StatementCache statementCache = new StatementCache();
+    private final List<StatementHandler> openStatements = new ArrayList<>();
+    private volatile Handle current;
+
+    PooledConnection(PoolEntry entry, DatabaseConnectionPool pool) {
+        this.entry = entry;
+        this.pool = pool;
+    }
+
+    /**
+     * New handle for a borrower; called by the thread that just borrowed the entry
+     */
+    Connection checkOut() {
+        current = new Handle();
+        return current.proxy;
+    }
+
+    /**
+     * Close a handle handed out by the pool and return its pool entry; null for any other
+     * connection, or a handle that is already closed
+     */
+    static PoolEntry checkIn(Connection connection) {
+        if (connection != null && Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof Handle handle
+                && handle.closed.compareAndSet(false, true)) {
+            return handle.owner().entry;
+        }
+        return null;
+    }
+
+    private PreparedStatement prepare(String sql, Connection handle) throws SQLException {
+        if (pool.getStatementCacheSize() == 0) {
+            return entry.connection.prepareStatement(sql);
+        }
+        PreparedStatement statement = statementCache.take(sql);
+        if (statement != null) {
+            pool.statementCacheHits.increment();
+        } else {
+            pool.statementCacheMisses.increment();
+            statement = entry.connection.prepareStatement(sql);
+        }
+        StatementHandler handler = new StatementHandler(sql, statement, handle);
+        openStatements.add(handler);
+        return handler.proxy;
+    }
+
+    /**
+     * Put statements the borrower left open back in the cache; called when the connection is released
+     */
+    void reset() {
+        for (StatementHandler handler : openStatements) {
+            handler.recycle();
+        }
+        openStatements.clear();
+    }
+
+    /**
+     * Close the current handle and every statement, cached or open; called before the
+     * physical connection is closed
+     */
+    void closeStatements() {
+        Handle handle = current;
+        if (handle != null) {
+            handle.closed.set(true);
+        }
+        for (StatementHandler handler : openStatements) {
+            handler.closed = true;
+            StatementCache.closeQuietly(handler.statement);
+        }
+        openStatements.clear();
+        statementCache.close();
+    }
+
+    int getCachedStatementCount() {
+        return statementCache.size();
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Handler behind the Connection handed to one borrower
+     */
+    private final class Handle implements InvocationHandler {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Connection proxy;
+
+        Handle() {
+            this.proxy = (Connection) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, this);
+        }
+
+        PooledConnection owner() {
+            return PooledConnection.this;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed.get()) {
+                        pool.releaseConnection(this.proxy);
+                    }
+                    return null;
+                case "isClosed":
+                    if (closed.get()) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + entry.connection;
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return prepare((String) args[0], this.proxy);
+            }
+            return forward(entry.connection, method, args);
+        }
+    }
+
+    /**
+     * Handler behind one checkout of a cached statement; closing it returns the statement to the cache
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final String sql;
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private final Connection connection;
+        private boolean closed;
+        private boolean batched;  // addBatch called, so the batch has to be cleared
+        private boolean modified; // a setting changed, so the statement is not reused
+
+        StatementHandler(String sql, PreparedStatement statement, Connection connection) {
+            this.sql = sql;
+            this.statement = statement;
+            this.connection = connection;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        openStatements.remove(this);
+                        recycle();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + statement;
+                case "getConnection":
+                    return connection;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (method.getName().equals("addBatch")) {
+                batched = true;
+            } else if (STATEMENT_SETTINGS.contains(method.getName())) {
+                modified = true;
+            }
+            return forward(statement, method, args);
+        }
+
+        /**
+         * Close this checkout and offer the statement back to the cache, closing it if it is not kept;
+         * a statement whose settings the borrower changed is closed rather than reset setting by setting
+         */
+        void recycle() {
+            closed = true;
+            if (modified) {
+                StatementCache.closeQuietly(statement);
+                return;
+            }
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                if (batched) {
+                    statement.clearBatch();
+                }
+                if (statementCache.offer(sql, statement, pool.getStatementCacheSize())) {
+                    return;
+                }
+            } catch (SQLException e) {
+                // a statement that cannot be reset is not worth keeping
+            }
+            StatementCache.closeQuietly(statement);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package creational.singleton.databaseconnectionpool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of idle prepared statements for one physical connection, keyed by SQL.
+ *
+ * A statement is taken out of the cache while a borrower uses it and offered back when
+ * the borrower closes it, so each cached statement has at most one user. Only the thread
+ * holding the connection touches its cache; ownership passes between threads through the
+ * pool entry's state, so no locking is needed.
+ */
+final class StatementCache {
+
+    private final LinkedHashMap<String, PreparedStatement> idle = new LinkedHashMap<>();
+
+    /**
+     * Remove and return the idle statement for sql; null on a miss
+     */
+    PreparedStatement take(String sql) {
+        return idle.remove(sql);
+    }
+
+    /**
+     * Keep a closed-by-the-caller statement for reuse, closing the least recently returned
+     * statements beyond maxSize; false if it was not kept and should be closed
+     */
+    boolean offer(String sql, PreparedStatement statement, int maxSize) {
+        if (maxSize <= 0 || idle.containsKey(sql)) {
+            return false; // caching disabled, or the same SQL was prepared twice and one copy is enough
+        }
+        idle.put(sql, statement);
+        Iterator<PreparedStatement> eldest = idle.values().iterator();
+        while (idle.size() > maxSize) {
+            closeQuietly(eldest.next());
+            eldest.remove();
+        }
+        return true;
+    }
+
+    int size() {
+        return idle.size();
+    }
+
+    /**
+     * Close every cached statement
+     */
+    void close() {
+        for (Map.Entry<String, PreparedStatement> entry : idle.entrySet()) {
+            closeQuietly(entry.getValue());
+        }
+        idle.clear();
+    }
+
+    static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing prepared statement: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package creational.singleton.databaseconnectionpool;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * In-process JDBC driver with no database behind it, for exercising the pool without a server.
+ *
+ * URLs look like jdbc:stub:name?connectLatencyMs=5&queryLatencyMs=1 (both parameters
+ * optional, fractions allowed). Opening a connection sleeps for the connect latency, and
+ * every execute call sleeps for the query latency and returns an empty result. Sleeping
+ * rather than spinning lets virtual threads unmount, like a real network wait.
+ * {@link #setAvailable(boolean)} simulates a database outage: new connections fail and
+ * existing ones report themselves invalid.
+ */
+public final class StubDriver implements Driver {
+
+    public static final String URL_PREFIX = "jdbc:stub:";
+
+    private static final AtomicInteger openConnections = new AtomicInteger();
+    private static final AtomicInteger preparedStatements = new AtomicInteger();
+    private static volatile boolean available = true;
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Make sure the driver is registered with DriverManager
+     */
+    public static void register() {
+        // registration happens in the static initializer
+    }
+
+    public static void setAvailable(boolean isAvailable) {
+        available = isAvailable;
+    }
+
+    public static int getOpenConnectionCount() {
+        return openConnections.get();
+    }
+
+    public static int getPreparedStatementCount() {
+        return preparedStatements.get();
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null; // let DriverManager try the next driver
+        }
+        long connectLatencyNanos = 0;
+        long queryLatencyNanos = 0;
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            for (String parameter : url.substring(query + 1).split("&")) {
+                String[] pair = parameter.split("=", 2);
+                long nanos = (long) (parseMillis(pair, url) * 1_000_000);
+                switch (pair[0]) {
+                    case "connectLatencyMs" -> connectLatencyNanos = nanos;
+                    case "queryLatencyMs" -> queryLatencyNanos = nanos;
+                    default -> throw new SQLException("Unknown stub driver parameter " + pair[0] + " in " + url);
+                }
+            }
+        }
+
+        sleep(connectLatencyNanos);
+        if (!available) {
+            throw new SQLException("Stub database is unavailable");
+        }
+        openConnections.incrementAndGet();
+        return new StubConnection(queryLatencyNanos).proxy;
+    }
+
+    private static double parseMillis(String[] pair, String url) throws SQLException {
+        try {
+            return Double.parseDouble(pair.length == 2 ? pair[1] : "");
+        } catch (NumberFormatException e) {
+            throw new SQLException("Invalid stub driver parameter " + String.join("=", pair) + " in " + url);
+        }
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Stub driver does not use java.util.logging");
+    }
+
+    private static void sleep(long nanos) throws SQLException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted", e);
+        }
+    }
+
+    /**
+     * Zero, false or null, whichever the method returns
+     */
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+
+    private static final class StubConnection {
+        private final long queryLatencyNanos;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Connection proxy;
+
+        StubConnection(long queryLatencyNanos) {
+            this.queryLatencyNanos = queryLatencyNanos;
+            this.proxy = (Connection) Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (p, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (closed.compareAndSet(false, true)) {
+                                openConnections.decrementAndGet();
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> closed.get();
+                        case "isValid" -> available && !closed.get();
+                        case "getAutoCommit" -> true;
+                        case "createStatement" -> statement(Statement.class);
+                        case "prepareStatement" -> {
+                            preparedStatements.incrementAndGet();
+                            yield statement(PreparedStatement.class);
+                        }
+                        case "equals" -> p == args[0];
+                        case "hashCode" -> System.identityHashCode(p);
+                        case "toString" -> "StubConnection@" + Integer.toHexString(System.identityHashCode(p));
+                        default -> defaultValue(method);
+                    });
+        }
+
+        private Object statement(Class<? extends Statement> type) throws SQLException {
+            checkOpen();
+            AtomicBoolean statementClosed = new AtomicBoolean();
+            return Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[] {type},
+                    (p, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            statementClosed.set(true);
+                            yield null;
+                        }
+                        case "isClosed" -> statementClosed.get();
+                        case "getConnection" -> proxy;
+                        case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch" -> {
+                            if (statementClosed.get()) {
+                                throw new SQLException("Statement is closed");
+                            }
+                            checkOpen();
+                            sleep(queryLatencyNanos);
+                            yield switch (method.getName()) {
+                                case "executeQuery" -> emptyResultSet();
+                                case "executeBatch" -> new int[0];
+                                default -> defaultValue(method);
+                            };
+                        }
+                        case "equals" -> p == args[0];
+                        case "hashCode" -> System.identityHashCode(p);
+                        default -> defaultValue(method);
+                    });
+        }
+
+        private void checkOpen() throws SQLException {
+            if (closed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            if (!available) {
+                throw new SQLException("Stub database is unavailable");
+            }
+        }
+
+        private static ResultSet emptyResultSet() {
+            return (ResultSet) Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                    (p, method, args) -> switch (method.getName()) {
+                        case "equals" -> p == args[0];
+                        case "hashCode" -> System.identityHashCode(p);
+                        default -> defaultValue(method);
+                    });
+        }
+    }
+}
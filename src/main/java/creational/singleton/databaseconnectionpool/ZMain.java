@@ -12,6 +12,9 @@ public class ZMain {
     public static void main(String[] args) {
         System.out.println("=== Database Connection Pool Singleton Demo ===\n");
         
+        // Register the in-process driver, so the demo also runs without H2: -Ddb.url=jdbc:stub:demo
+        StubDriver.register();
+        
         // Get the singleton instance
         DatabaseConnectionPool pool = DatabaseConnectionPool.getInstance();
         
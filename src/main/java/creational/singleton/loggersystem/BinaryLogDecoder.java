@@ -0,0 +1,215 @@
+package creational.singleton.loggersystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns a binary log written by {@link BinaryLogWriter} back into the Logger's text format,
+ * optionally keeping only matching events.
+ *
+ * Usage: BinaryLogDecoder file [--level LEVEL] [--thread NAME] [--template TEXT]
+ *        [--grep TEXT] [--since yyyy-MM-ddTHH:mm:ss] [--until yyyy-MM-ddTHH:mm:ss]
+ *
+ * --level keeps that level and above, --template and --grep match substrings of the
+ * template and of the rendered line, and --since/--until are local times. Reading stops
+ * at the first incomplete record, so a file left behind by a crashed JVM decodes up to
+ * the last event that was fully written.
+ */
+public class BinaryLogDecoder {
+
+    private static final int REGION_BYTES = 8 * 1024 * 1024;
+
+    private Logger.LogLevel minLevel;
+    private String thread;
+    private String template;
+    private String grep;
+    private long sinceNanos = Long.MIN_VALUE;
+    private long untilNanos = Long.MAX_VALUE;
+
+    private final Map<Integer, String> templates = new HashMap<>();
+    private final Map<Long, String> threadNames = new HashMap<>();
+    private final EventFormatter formatter = new EventFormatter();
+    private final LogEvent event = new LogEvent();
+    private byte[] stringBytes = new byte[256];
+
+    private FileChannel channel;
+    private ByteBuffer region;
+    private long regionStart;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: BinaryLogDecoder file [--level LEVEL] [--thread NAME] [--template TEXT]"
+                    + " [--grep TEXT] [--since yyyy-MM-ddTHH:mm:ss] [--until yyyy-MM-ddTHH:mm:ss]");
+            System.exit(2);
+        }
+        BinaryLogDecoder decoder = new BinaryLogDecoder();
+        ZoneId zone = ZoneId.systemDefault();
+        for (int i = 1; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--level" -> decoder.minLevel = Logger.LogLevel.valueOf(value.toUpperCase());
+                case "--thread" -> decoder.thread = value;
+                case "--template" -> decoder.template = value;
+                case "--grep" -> decoder.grep = value;
+                case "--since" -> decoder.sinceNanos = toEpochNanos(LocalDateTime.parse(value), zone);
+                case "--until" -> decoder.untilNanos = toEpochNanos(LocalDateTime.parse(value), zone);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()), 64 * 1024);
+        long written = decoder.decode(Path.of(args[0]), out);
+        out.flush();
+        System.err.println(written + " events decoded");
+    }
+
+    /**
+     * Write every matching event as text; returns the number of events written
+     */
+    long decode(Path file, Writer out) throws IOException {
+        try (FileChannel opened = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel = opened;
+            long size = channel.size();
+            ByteBuffer header = read(0, BinaryLogWriter.HEADER_BYTES, size);
+            if (header == null || header.getInt() != BinaryLogWriter.MAGIC) {
+                throw new IOException("Not a binary log file: " + file);
+            }
+            short version = header.getShort();
+            if (version != BinaryLogWriter.VERSION) {
+                throw new IOException("Unsupported binary log version " + version + ": " + file);
+            }
+
+            long written = 0;
+            long offset = BinaryLogWriter.HEADER_BYTES;
+            while (true) {
+                ByteBuffer lengthBuffer = read(offset, Integer.BYTES, size);
+                int length = lengthBuffer == null ? 0 : lengthBuffer.getInt();
+                ByteBuffer body = length <= 0 ? null : read(offset + Integer.BYTES, length, size);
+                if (body == null) {
+                    return written; // end of the records, or a record cut short by a crash
+                }
+                if (decodeRecord(body) && matches()) {
+                    StringBuilder line = formatter.format(event);
+                    if (grep == null || line.indexOf(grep) >= 0) {
+                        out.append(line);
+                        written++;
+                    }
+                }
+                event.clear();
+                offset += Integer.BYTES + length;
+            }
+        } finally {
+            channel = null;
+            region = null;
+        }
+    }
+
+    /**
+     * Apply a dictionary record, or fill the event; returns true for events
+     */
+    private boolean decodeRecord(ByteBuffer body) {
+        byte type = body.get();
+        if (type == BinaryLogWriter.TEMPLATE) {
+            int id = body.getInt();
+            templates.put(id, getString(body));
+            return false;
+        }
+        if (type == BinaryLogWriter.THREAD) {
+            long id = body.getLong();
+            threadNames.put(id, getString(body));
+            return false;
+        }
+        if (type != BinaryLogWriter.EVENT) {
+            return false; // record type from a newer writer
+        }
+
+        event.level = Logger.LogLevel.values()[body.get()];
+        event.epochNanos = body.getLong();
+        event.threadId = body.getLong();
+        event.threadName = threadNames.getOrDefault(event.threadId, "thread-" + event.threadId);
+        int flags = body.get();
+        event.template = (flags & BinaryLogWriter.FLAG_INLINE_TEMPLATE) != 0
+                ? getString(body)
+                : templates.getOrDefault(body.getInt(), "<unknown template>");
+        if ((flags & BinaryLogWriter.FLAG_FORMATTED) != 0) {
+            event.message = getString(body);
+        } else {
+            int count = body.get() & 0xFF;
+            if (count > 0) {
+                event.args = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    event.args[i] = getArgument(body);
+                }
+            }
+        }
+        if ((flags & BinaryLogWriter.FLAG_STACK_TRACE) != 0) {
+            event.stackTrace = getString(body);
+        }
+        return true;
+    }
+
+    private boolean matches() {
+        return (minLevel == null || event.level.getLevel() >= minLevel.getLevel())
+                && (thread == null || thread.equals(event.threadName))
+                && (template == null || event.template.contains(template))
+                && event.epochNanos >= sinceNanos
+                && event.epochNanos <= untilNanos;
+    }
+
+    private Object getArgument(ByteBuffer body) {
+        byte tag = body.get();
+        return switch (tag) {
+            case BinaryLogWriter.ARG_NULL -> null;
+            case BinaryLogWriter.ARG_BOOLEAN -> body.get() != 0;
+            case BinaryLogWriter.ARG_INT -> body.getInt();
+            case BinaryLogWriter.ARG_LONG -> body.getLong();
+            case BinaryLogWriter.ARG_FLOAT -> body.getFloat();
+            case BinaryLogWriter.ARG_DOUBLE -> body.getDouble();
+            case BinaryLogWriter.ARG_CHAR -> body.getChar();
+            case BinaryLogWriter.ARG_STRING -> getString(body);
+            default -> throw new IllegalStateException("Unknown argument type " + tag);
+        };
+    }
+
+    private String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+        }
+        body.get(stringBytes, 0, length);
+        return new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * View of 'bytes' bytes at offset, mapping a new region when needed; null past the end of the file
+     */
+    private ByteBuffer read(long offset, int bytes, long size) throws IOException {
+        if (offset + bytes > size) {
+            return null;
+        }
+        if (region == null || offset < regionStart || offset + bytes > regionStart + region.capacity()) {
+            regionStart = offset;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(size - offset, Math.max(REGION_BYTES, bytes)));
+        }
+        return region.slice((int) (offset - regionStart), bytes);
+    }
+
+    private static long toEpochNanos(LocalDateTime time, ZoneId zone) {
+        return time.atZone(zone).toInstant().getEpochSecond() * 1_000_000_000L;
+    }
+}
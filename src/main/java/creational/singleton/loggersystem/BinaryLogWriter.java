@@ -0,0 +1,279 @@
+package creational.singleton.loggersystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes log events as binary records into a memory-mapped file, skipping text rendering.
+ *
+ * Layout: a header (magic, version) followed by records, each an int length and then the
+ * body. A body starts with a record type:
+ * TEMPLATE defines a template id (int id, string), THREAD names a thread id (long id,
+ * string), and EVENT holds level ordinal (byte), epoch nanos (long), thread id (long),
+ * flags (byte), the template id (or the template inline once the dictionary is full),
+ * then either the formatted message or typed arguments, then the stack trace if any.
+ * Strings are an int byte length plus UTF-8; arguments are a type tag plus value.
+ *
+ * Records are written body first and length last, and the file is extended in zeroed
+ * mapped regions, so a reader stops at the first zero length. Mapped pages belong to the
+ * OS page cache, so everything written survives a JVM crash without an explicit flush;
+ * pages are only forced to the device on close.
+ * Dictionary ids are per writer; reopening an existing file appends and redefines them.
+ */
+final class BinaryLogWriter {
+
+    static final int MAGIC = 0x424C4F47; // "BLOG"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+
+    static final byte TEMPLATE = 1;
+    static final byte THREAD = 2;
+    static final byte EVENT = 3;
+
+    static final int FLAG_INLINE_TEMPLATE = 1;
+    static final int FLAG_FORMATTED = 2;
+    static final int FLAG_STACK_TRACE = 4;
+
+    static final byte ARG_NULL = 0;
+    static final byte ARG_BOOLEAN = 1;
+    static final byte ARG_INT = 2;
+    static final byte ARG_LONG = 3;
+    static final byte ARG_FLOAT = 4;
+    static final byte ARG_DOUBLE = 5;
+    static final byte ARG_CHAR = 6;
+    static final byte ARG_STRING = 7;
+
+    private static final int REGION_BYTES = 8 * 1024 * 1024;
+    // Templates built by concatenation are written inline instead of growing the dictionary
+    private static final int MAX_TEMPLATES = 4096;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Integer> templateIds = new HashMap<>();
+    private final Map<Long, String> threadNames = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;     // file offset of the next record
+    private long lastThreadId = -1;
+    private String lastThreadName;
+    private boolean closed;
+
+    BinaryLogWriter(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.position = findEnd();
+        if (position == 0) {
+            map(HEADER_BYTES);
+            region.putInt(0, MAGIC).putShort(Integer.BYTES, VERSION);
+            position = HEADER_BYTES;
+        }
+    }
+
+    /**
+     * Bytes of records and header written to the file so far
+     */
+    synchronized long size() {
+        return position;
+    }
+
+    /**
+     * Append one event, defining its template and thread first if this writer has not seen them
+     */
+    synchronized void append(LogEvent event) throws IOException {
+        if (closed) {
+            return;
+        }
+        if (event.threadId != lastThreadId || !event.threadName.equals(lastThreadName)) {
+            if (!event.threadName.equals(threadNames.get(event.threadId))) {
+                threadNames.put(event.threadId, event.threadName);
+                ByteBuffer body = body(Byte.BYTES + Long.BYTES);
+                body.put(THREAD).putLong(event.threadId);
+                putString(event.threadName);
+                writeRecord();
+            }
+            lastThreadId = event.threadId;
+            lastThreadName = event.threadName;
+        }
+
+        String template = event.template != null ? event.template : "null";
+        Integer templateId = templateIds.get(template);
+        if (templateId == null && templateIds.size() < MAX_TEMPLATES) {
+            templateId = templateIds.size();
+            templateIds.put(template, templateId);
+            body(Byte.BYTES + Integer.BYTES).put(TEMPLATE).putInt(templateId);
+            putString(template);
+            writeRecord();
+        }
+
+        boolean formatted = event.message != null && event.message != event.template;
+        String stackTrace = event.throwable != null ? EventFormatter.renderStackTrace(event.throwable) : null;
+        int flags = (templateId == null ? FLAG_INLINE_TEMPLATE : 0)
+                | (formatted ? FLAG_FORMATTED : 0)
+                | (stackTrace != null ? FLAG_STACK_TRACE : 0);
+
+        ByteBuffer body = body(Byte.BYTES * 3 + Long.BYTES * 2 + Integer.BYTES);
+        body.put(EVENT).put((byte) event.level.ordinal()).putLong(event.epochNanos)
+                .putLong(event.threadId).put((byte) flags);
+        if (templateId != null) {
+            body.putInt(templateId);
+        } else {
+            putString(template);
+        }
+        if (formatted) {
+            putString(event.message);
+        } else {
+            Object[] args = event.args;
+            int count = args == null ? 0 : Math.min(args.length, 255);
+            ensure(Byte.BYTES).put((byte) count);
+            for (int i = 0; i < count; i++) {
+                putArgument(args[i]);
+            }
+        }
+        if (stackTrace != null) {
+            putString(stackTrace);
+        }
+        writeRecord();
+    }
+
+    /**
+     * Force the mapped pages and trim the zeroed tail of the last region
+     */
+    synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (region != null) { // a reopened file is only mapped on its first append
+            region.force();
+            region = null;
+        }
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            // Some platforms refuse to truncate a file that is still mapped; readers stop at the zeros
+        }
+        channel.close();
+    }
+
+    private ByteBuffer body(int bytes) {
+        scratch.clear();
+        return ensure(bytes);
+    }
+
+    /**
+     * Scratch buffer with at least 'bytes' free, grown as needed
+     */
+    private ByteBuffer ensure(int bytes) {
+        if (scratch.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+            grown.put(scratch.flip());
+            scratch = grown;
+        }
+        return scratch;
+    }
+
+    private void putString(String value) {
+        int length = value.length();
+        ensure(Integer.BYTES + length);
+        int start = scratch.position();
+        scratch.putInt(0);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII: let the JDK encode the whole string
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                scratch.position(start + Integer.BYTES);
+                ensure(bytes.length).put(bytes);
+                break;
+            }
+            scratch.put((byte) c);
+        }
+        scratch.putInt(start, scratch.position() - start - Integer.BYTES);
+    }
+
+    private void putArgument(Object arg) {
+        ByteBuffer body = ensure(Byte.BYTES + Long.BYTES);
+        if (arg == null) {
+            body.put(ARG_NULL);
+        } else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            body.put(ARG_INT).putInt(((Number) arg).intValue());
+        } else if (arg instanceof Long) {
+            body.put(ARG_LONG).putLong((Long) arg);
+        } else if (arg instanceof Double) {
+            body.put(ARG_DOUBLE).putDouble((Double) arg);
+        } else if (arg instanceof Float) {
+            body.put(ARG_FLOAT).putFloat((Float) arg);
+        } else if (arg instanceof Boolean) {
+            body.put(ARG_BOOLEAN).put((byte) ((Boolean) arg ? 1 : 0));
+        } else if (arg instanceof Character) {
+            body.put(ARG_CHAR).putChar((Character) arg);
+        } else {
+            body.put(ARG_STRING);
+            putString(String.valueOf(arg));
+        }
+    }
+
+    /**
+     * Copy the scratch body into the mapped file, then publish it by writing its length
+     */
+    private void writeRecord() throws IOException {
+        scratch.flip();
+        int length = scratch.remaining();
+        long recordBytes = Integer.BYTES + (long) length;
+        if (region == null || position + recordBytes > regionStart + region.capacity()) {
+            map(recordBytes);
+        }
+        int offset = (int) (position - regionStart);
+        region.put(offset + Integer.BYTES, scratch, 0, length);
+        region.putInt(offset, length);
+        position += recordBytes;
+    }
+
+    /**
+     * Map a fresh region starting at the current end of the records
+     */
+    private void map(long minBytes) throws IOException {
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_BYTES, minBytes));
+    }
+
+    /**
+     * Offset just past the last complete record of an existing file, or 0 for an empty one
+     */
+    private long findEnd() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        long windowStart = 0;
+        channel.read(window, 0);
+        if (size < HEADER_BYTES || window.getInt(0) != MAGIC || window.getShort(Integer.BYTES) != VERSION) {
+            throw new IOException("Not a binary log file: " + file);
+        }
+        // Hop from length to length, reading the file in windows rather than per record
+        long offset = HEADER_BYTES;
+        while (offset + Integer.BYTES <= size) {
+            if (offset + Integer.BYTES > windowStart + window.position()) {
+                windowStart = offset;
+                window.clear();
+                channel.read(window, offset);
+            }
+            int recordLength = window.getInt((int) (offset - windowStart));
+            if (recordLength <= 0 || offset + Integer.BYTES + recordLength > size) {
+                break;
+            }
+            offset += Integer.BYTES + recordLength;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,208 @@
+package creational.singleton.loggersystem;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.IllegalFormatException;
+
+/**
+ * Renders log events on the background thread into a reused StringBuilder and
+ * UTF-8 ByteBuffer. The timestamp prefix is recomputed once per second, and
+ * %s, %d, %% and %n are expanded without String.format, so formatting a typical
+ * event allocates nothing in steady state. Other conversions fall back to String.format.
+ * Not thread-safe; owned by the logger's background thread.
+ */
+final class EventFormatter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final DateTimeFormatter secondFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.");
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder text = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] chars = new char[256];
+    private CharBuffer charBuffer = CharBuffer.wrap(chars);
+    private ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedSecondText;
+
+    /**
+     * Format one event as "[timestamp] [LEVEL] [thread] message" plus a line separator
+     */
+    StringBuilder format(LogEvent event) {
+        text.setLength(0);
+        text.append('[');
+        appendTimestamp(event.epochNanos);
+        text.append("] [").append(event.level.name()).append("] [").append(event.threadName).append("] ");
+        if (event.message != null) {
+            text.append(event.message);
+        } else {
+            appendMessage(event.template, event.args);
+        }
+        if (event.throwable != null) {
+            text.append('\n').append(renderStackTrace(event.throwable));
+        } else if (event.stackTrace != null) {
+            text.append('\n').append(event.stackTrace);
+        }
+        text.append(LINE_SEPARATOR);
+        return text;
+    }
+
+    /**
+     * Encode the formatted text as UTF-8; the returned buffer is reused by the next call
+     */
+    ByteBuffer encode(StringBuilder formatted) {
+        int maxBytes = maxEncodedBytes(formatted);
+        if (bytes.capacity() < maxBytes) {
+            bytes = ByteBuffer.allocate(Math.max(maxBytes, bytes.capacity() * 2));
+        }
+        bytes.clear();
+        encodeInto(formatted, bytes);
+        return bytes.flip();
+    }
+
+    /**
+     * Upper bound on the encoded size of the formatted text
+     */
+    int maxEncodedBytes(StringBuilder formatted) {
+        return (int) (formatted.length() * encoder.maxBytesPerChar());
+    }
+
+    /**
+     * Encode the formatted text as UTF-8 at the target's position, which must have
+     * maxEncodedBytes free; lets appenders encode straight into their own buffers
+     */
+    void encodeInto(StringBuilder formatted, ByteBuffer target) {
+        int length = formatted.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        formatted.getChars(0, length, chars, 0);
+        charBuffer.clear().limit(length);
+        encoder.reset();
+        encoder.encode(charBuffer, target, true);
+        encoder.flush(target);
+    }
+
+    /**
+     * Stack trace as printStackTrace renders it, without the trailing line separator
+     */
+    static String renderStackTrace(Throwable throwable) {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.getBuffer().substring(0, trimmedLength(stackTrace.getBuffer()));
+    }
+
+    /**
+     * Expand the printf-style template captured by a deferred event
+     */
+    private void appendMessage(String template, Object[] args) {
+        int start = text.length();
+        if (args == null || args.length == 0) {
+            text.append(template);
+            return;
+        }
+        try {
+            if (!appendSimple(template, args)) {
+                text.setLength(start);
+                text.append(String.format(template, args));
+            }
+        } catch (IllegalFormatException e) {
+            // Deferred formatting cannot throw at the call site, so report the problem inline
+            text.setLength(start);
+            text.append(template).append(" [format error: ").append(e.getMessage()).append(']');
+        }
+    }
+
+    /**
+     * Fast path for %s, %d, %% and %n; returns false if the template needs String.format
+     */
+    private boolean appendSimple(String template, Object[] args) {
+        int argIndex = 0;
+        int length = template.length();
+        for (int i = 0; i < length; i++) {
+            char c = template.charAt(i);
+            if (c != '%') {
+                text.append(c);
+                continue;
+            }
+            if (++i == length) {
+                return false;
+            }
+            char conversion = template.charAt(i);
+            if (conversion == '%') {
+                text.append('%');
+            } else if (conversion == 'n') {
+                text.append(LINE_SEPARATOR);
+            } else if (conversion == 's' || conversion == 'd') {
+                if (argIndex >= args.length) {
+                    return false;
+                }
+                if (!appendArgument(args[argIndex++], conversion == 'd')) {
+                    return false;
+                }
+            } else {
+                return false; // flags, width, precision or other conversions
+            }
+        }
+        return true;
+    }
+
+    private boolean appendArgument(Object arg, boolean integral) {
+        if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+            text.append(((Number) arg).longValue());
+            return true;
+        }
+        if (integral) {
+            return false; // BigInteger, or a mismatch String.format should report
+        }
+        if (arg instanceof CharSequence) {
+            text.append((CharSequence) arg);
+        } else if (arg instanceof Boolean) {
+            text.append(((Boolean) arg).booleanValue());
+        } else if (arg instanceof Character) {
+            text.append(((Character) arg).charValue());
+        } else {
+            text.append(arg); // null or any other object: String.valueOf, as %s would
+        }
+        return true;
+    }
+
+    private void appendTimestamp(long epochNanos) {
+        long second = Math.floorDiv(epochNanos, 1_000_000_000L);
+        if (second != cachedSecond) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), zone);
+            cachedSecondText = time.format(secondFormatter);
+            cachedSecond = second;
+        }
+        int millis = (int) (Math.floorMod(epochNanos, 1_000_000_000L) / 1_000_000);
+        text.append(cachedSecondText);
+        if (millis < 100) {
+            text.append('0');
+        }
+        if (millis < 10) {
+            text.append('0');
+        }
+        text.append(millis);
+    }
+
+    private static int trimmedLength(StringBuffer buffer) {
+        int end = buffer.length();
+        while (end > 0 && (buffer.charAt(end - 1) == '\n' || buffer.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,28 @@
+package creational.singleton.loggersystem;
+
+/**
+ * Reusable ring buffer slot. Producers fill it in place after claiming a sequence,
+ * so logging does not allocate a queue node per message. With deferred formatting
+ * only references are captured here and the background thread renders the text.
+ */
+final class LogEvent {
+    Logger.LogLevel level;
+    long epochNanos; // millisecond precision for live events
+    String threadName;
+    long threadId;
+    String template;
+    Object[] args;
+    String message; // already formatted by the caller, or null when formatting is deferred
+    Throwable throwable;
+    String stackTrace; // already rendered, for events decoded from a binary log
+
+    void clear() {
+        level = null;
+        threadName = null;
+        template = null;
+        args = null;
+        message = null;
+        throwable = null;
+        stackTrace = null;
+    }
+}
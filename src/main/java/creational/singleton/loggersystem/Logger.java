@@ -1,16 +1,23 @@
  package creational.singleton.loggersystem;
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Singleton Logger using Lazy Initialization Holder Pattern
- * Thread-safe, high-performance logging system with multiple log levels
+ * Thread-safe, high-performance logging system with multiple log levels.
+ * Messages go through a preallocated {@link RingBuffer} to a background thread that
+ * writes them in batches; the thread waits according to a {@link WaitStrategy}.
+ * Timestamps and envelopes are always rendered on that thread; with deferred
+ * formatting the message arguments are too.
  */
 public class Logger {
     
@@ -33,25 +40,53 @@ public class Logger {
         }
     }
     
-    private final DateTimeFormatter timeFormatter;
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long DEFAULT_MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final long DEFAULT_ROLLOVER_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int DEFAULT_MAX_BACKUPS = 7;
+    
     private final String logFileName;
-    private final ConcurrentLinkedQueue<String> logBuffer;
-    private final ScheduledExecutorService executorService;
+    private final RingBuffer ringBuffer;
+    private final Thread processorThread;
+    private volatile WaitStrategy waitStrategy;
     private LogLevel currentLogLevel;
     private boolean consoleOutput;
     private boolean fileOutput;
-    private PrintWriter fileWriter;
+    private volatile boolean deferredFormatting;
+    private volatile RollingFileAppender fileAppender;
+    private volatile BinaryLogWriter binaryWriter;
+    private final EventFormatter eventFormatter; // used only by the processor thread
+    private final boolean consoleIsUtf8;
+    
+    // Backpressure configuration and overflow metrics
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private volatile LogLevel overflowThreshold = LogLevel.WARN;
+    private volatile int sampleRate = 10;
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder blockedCount = new LongAdder();
+    private final LongAdder briefWaitCount = new LongAdder(); // DROP_OLDEST waits while the oldest are discarded
+    private final LongAdder[] droppedCounts; // indexed by OverflowPolicy ordinal
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator peakQueueDepth = new LongAccumulator(Math::max, 0);
+    private final RateLimiter rateLimiter;
     
     // Private constructor prevents external instantiation
     private Logger() {
-        this.timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+        this.eventFormatter = new EventFormatter();
+        this.consoleIsUtf8 = StandardCharsets.UTF_8.equals(System.out.charset());
         this.logFileName = "application.log";
-        this.logBuffer = new ConcurrentLinkedQueue<>();
-        this.executorService = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "Logger-Thread");
-            t.setDaemon(true); // Don't prevent JVM shutdown
-            return t;
-        });
+        this.ringBuffer = new RingBuffer(BUFFER_CAPACITY);
+        this.waitStrategy = WaitStrategy.BLOCKING;
+        this.processorThread = new Thread(this::processEvents, "Logger-Thread");
+        this.processorThread.setDaemon(true); // Don't prevent JVM shutdown
+        this.droppedCounts = new LongAdder[OverflowPolicy.values().length];
+        for (int i = 0; i < droppedCounts.length; i++) {
+            droppedCounts[i] = new LongAdder();
+        }
+        this.rateLimiter = new RateLimiter(this::logSuppressed);
         this.currentLogLevel = LogLevel.INFO;
         this.consoleOutput = true;
         this.fileOutput = true;
@@ -71,11 +106,12 @@ public class Logger {
     }
     
     /**
-     * Initialize file writer for log file output
+     * Initialize rolling file appender for log file output
      */
     private void initializeFileWriter() {
         try {
-            fileWriter = new PrintWriter(new FileWriter(logFileName, true));
+            fileAppender = new RollingFileAppender(Path.of(logFileName), DEFAULT_MAX_FILE_BYTES,
+                    DEFAULT_ROLLOVER_INTERVAL_MILLIS, DEFAULT_MAX_BACKUPS);
         } catch (IOException e) {
             System.err.println("Failed to initialize log file writer: " + e.getMessage());
             fileOutput = false;
@@ -86,33 +122,139 @@ public class Logger {
      * Start background log processor
      */
     private void startLogProcessor() {
-        executorService.scheduleAtFixedRate(this::processLogBuffer, 100, 100, TimeUnit.MILLISECONDS);
+        processorThread.start();
+    }
+    
+    /**
+     * Background loop: wait for published events, write each contiguous batch and flush once per batch
+     */
+    private void processEvents() {
+        long next = ringBuffer.getConsumed() + 1;
+        while (true) {
+            long available;
+            try {
+                available = waitStrategy.waitFor(ringBuffer, next);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (available < next) {
+                if (!ringBuffer.isRunning() && ringBuffer.getCursor() < next) {
+                    return; // stopped and fully drained
+                }
+                continue;
+            }
+            
+            long highest = ringBuffer.highestPublished(next, available);
+            if (highest < next) {
+                Thread.onSpinWait(); // claimed by a producer that has not published yet
+                continue;
+            }
+            
+            peakQueueDepth.accumulate(available - next + 1);
+            
+            // Text is only rendered when a text output wants it
+            BinaryLogWriter binary = binaryWriter;
+            boolean text = consoleOutput || (fileOutput && fileAppender != null);
+            long written = 0;
+            // Checking for overflow before every event, not once per batch, keeps DROP_OLDEST producers' waits short
+            for (long sequence = discardOldestIfFull(next, highest); sequence <= highest;
+                    sequence = discardOldestIfFull(sequence + 1, highest)) {
+                LogEvent event = ringBuffer.get(sequence);
+                try {
+                    if (binary != null) {
+                        writeBinary(binary, event);
+                    }
+                    if (text) {
+                        writeToOutputs(eventFormatter.format(event));
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to write log message: " + e.getMessage());
+                }
+                event.clear();
+                written++;
+            }
+            writtenCount.add(written);
+            
+            long flushStart = System.nanoTime();
+            flushFile();
+            long flushTime = System.nanoTime() - flushStart;
+            flushCount.increment();
+            flushNanos.add(flushTime);
+            maxFlushNanos.accumulate(flushTime);
+            
+            ringBuffer.markConsumed(highest);
+            next = highest + 1;
+        }
     }
     
     /**
-     * Process queued log messages
+     * Under DROP_OLDEST, when the ring is full, discard the oldest pending events of the batch
+     * unwritten until it is three quarters full, and release their slots, together with the
+     * events of the batch already written, so producers resume. Returns the next sequence to write.
      */
-    private void processLogBuffer() {
-        String logMessage;
-        while ((logMessage = logBuffer.poll()) != null) {
-            writeToOutputs(logMessage);
+    private long discardOldestIfFull(long next, long highest) {
+        if (next > highest || overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+            return next;
         }
-        
-        if (fileWriter != null) {
-            fileWriter.flush();
+        long backlog = ringBuffer.getCursor() - next + 1;
+        if (backlog < ringBuffer.capacity()) {
+            return next;
         }
+        long last = Math.min(highest, next + backlog - ringBuffer.capacity() * 3L / 4 - 1);
+        for (long sequence = next; sequence <= last; sequence++) {
+            ringBuffer.get(sequence).clear();
+        }
+        droppedCounts[OverflowPolicy.DROP_OLDEST.ordinal()].add(last - next + 1);
+        ringBuffer.markConsumed(last);
+        return last + 1;
     }
     
     /**
-     * Write log message to configured outputs
+     * Write one formatted line, including its line separator, to configured outputs
      */
-    private void writeToOutputs(String message) {
+    private void writeToOutputs(StringBuilder line) {
+        RollingFileAppender appender = fileOutput ? fileAppender : null;
+        ByteBuffer bytes = null;
+        
         if (consoleOutput) {
-            System.out.println(message);
+            bytes = eventFormatter.encode(line);
+            if (consoleIsUtf8) {
+                System.out.write(bytes.array(), 0, bytes.limit());
+            } else {
+                System.out.print(line);
+            }
         }
         
-        if (fileOutput && fileWriter != null) {
-            fileWriter.println(message);
+        if (appender != null) {
+            try {
+                if (bytes != null) {
+                    appender.append(bytes.rewind());
+                } else {
+                    appender.append(line, eventFormatter); // encoded straight into the appender's buffers
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to write log file: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void writeBinary(BinaryLogWriter binary, LogEvent event) {
+        try {
+            binary.append(event);
+        } catch (IOException e) {
+            System.err.println("Failed to write binary log: " + e.getMessage());
+        }
+    }
+    
+    private void flushFile() {
+        RollingFileAppender appender = fileAppender;
+        if (appender != null) {
+            try {
+                appender.flush();
+            } catch (IOException e) {
+                System.err.println("Failed to flush log file: " + e.getMessage());
+            }
         }
     }
     
@@ -120,22 +262,87 @@ public class Logger {
      * Log message with specified level
      */
     private void log(LogLevel level, String message, Object... args) {
-        if (level.getLevel() >= currentLogLevel.getLevel()) {
-            String formattedMessage = formatLogMessage(level, message, args);
-            logBuffer.offer(formattedMessage);
+        log(level, message, null, args);
+    }
+    
+    /**
+     * Apply the level filter and the per-template rate limit before capturing the event
+     */
+    private void log(LogLevel level, String message, Throwable throwable, Object[] args) {
+        if (level.getLevel() < currentLogLevel.getLevel() || !ringBuffer.isRunning()) {
+            return;
         }
+        if (!rateLimiter.tryAcquire(message, level)) {
+            return; // counted and reported in the template's suppression summary
+        }
+        enqueue(level, message, throwable, args);
     }
     
     /**
-     * Format log message with timestamp and level
+     * Summary line for messages the rate limiter suppressed; never rate limited itself
      */
-    private String formatLogMessage(LogLevel level, String message, Object... args) {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-        String threadName = Thread.currentThread().getName();
-        String formattedMessage = args.length > 0 ? String.format(message, args) : message;
+    private void logSuppressed(LogLevel level, String template, long count, long windowMillis) {
+        if (ringBuffer.isRunning()) {
+            enqueue(level, "Suppressed %d messages in the last %d ms from: %s", null,
+                    new Object[] {count, windowMillis, template});
+        }
+    }
+    
+    /**
+     * Capture the event into a ring buffer slot. Eagerly formatted messages snapshot their
+     * arguments here; deferred ones only keep references for the background thread.
+     */
+    private void enqueue(LogLevel level, String message, Throwable throwable, Object[] args) {
+        OverflowPolicy policy = overflowPolicy;
+        if (policy == OverflowPolicy.SAMPLE && ringBuffer.size() >= ringBuffer.capacity() / 2
+                && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            droppedCounts[policy.ordinal()].increment();
+            return;
+        }
+        // Format before claiming a slot: a claimed slot must always be published
+        boolean deferred = deferredFormatting;
+        String formattedMessage = deferred || args.length == 0 ? null : String.format(message, args);
+        long now = System.currentTimeMillis(); // no Instant per event; the formatter derives the date
+        Thread thread = Thread.currentThread();
         
-        return String.format("[%s] [%s] [%s] %s", 
-                timestamp, level.name(), threadName, formattedMessage);
+        long sequence = claimSlot(policy, level);
+        if (sequence < 0) {
+            return; // dropped by the overflow policy, or the logger was shut down
+        }
+        acceptedCount.increment();
+        LogEvent event = ringBuffer.get(sequence);
+        event.level = level;
+        event.epochNanos = now * 1_000_000L;
+        event.threadName = thread.getName();
+        event.threadId = thread.threadId();
+        event.template = message;
+        event.args = deferred ? args : null;
+        event.message = deferred ? null : (formattedMessage != null ? formattedMessage : message);
+        event.throwable = throwable;
+        ringBuffer.publish(sequence);
+    }
+    
+    /**
+     * Claim a ring buffer slot, applying the overflow policy when the ring is full
+     */
+    private long claimSlot(OverflowPolicy policy, LogLevel level) {
+        long sequence = ringBuffer.tryNext();
+        if (sequence >= 0) {
+            return sequence;
+        }
+        if (!ringBuffer.isRunning()) {
+            return -1;
+        }
+        boolean drop = policy == OverflowPolicy.DROP_NEWEST
+                || policy == OverflowPolicy.SAMPLE
+                || (policy == OverflowPolicy.DROP_BELOW_LEVEL && level.getLevel() < overflowThreshold.getLevel());
+        if (drop) {
+            droppedCounts[policy.ordinal()].increment();
+            return -1;
+        }
+        // DROP_OLDEST waits too, but only until the background thread discards the oldest events
+        (policy == OverflowPolicy.DROP_OLDEST ? briefWaitCount : blockedCount).increment();
+        return ringBuffer.next();
     }
     
     // Public logging methods
@@ -172,12 +379,8 @@ public class Logger {
      * Log error with exception
      */
     public void error(String message, Throwable throwable, Object... args) {
-        String formattedMessage = args.length > 0 ? String.format(message, args) : message;
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        throwable.printStackTrace(pw);
-        
-        log(LogLevel.ERROR, formattedMessage + "\n" + sw.toString());
+        // The stack trace is rendered by the background thread
+        log(LogLevel.ERROR, message, throwable, args);
     }
     
     /**
@@ -220,6 +423,38 @@ public class Logger {
         info("File output %s", enabled ? "enabled" : "disabled");
     }
     
+    /**
+     * Choose how the background thread waits for new messages
+     */
+    public void setWaitStrategy(WaitStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Wait strategy cannot be null");
+        }
+        this.waitStrategy = strategy;
+    }
+    
+    /**
+     * Get current wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+    
+    /**
+     * Defer message formatting to the background thread. Callers then only capture
+     * argument references, so arguments must not be mutated after they are logged.
+     */
+    public void setDeferredFormatting(boolean enabled) {
+        this.deferredFormatting = enabled;
+    }
+    
+    /**
+     * Check whether message formatting is deferred to the background thread
+     */
+    public boolean isDeferredFormatting() {
+        return deferredFormatting;
+    }
+    
     /**
      * Check if level is enabled for logging
      */
@@ -231,19 +466,158 @@ public class Logger {
      * Clear log file
      */
     public void clearLogFile() {
+        flush();
         try {
-            if (fileWriter != null) {
-                fileWriter.close();
+            if (fileAppender != null) {
+                fileAppender.truncate();
             }
-            
-            // Recreate file writer with truncation
-            fileWriter = new PrintWriter(new FileWriter(logFileName, false));
             info("Log file cleared");
         } catch (IOException e) {
             System.err.println("Failed to clear log file: " + e.getMessage());
         }
     }
     
+    /**
+     * Roll the log file over once it reaches maxFileBytes or when the rollover interval
+     * ends (aligned to local time, so one day rolls at midnight). Rotated files are gzipped
+     * in the background and only the newest maxBackups archives are kept; 0 disables a limit.
+     */
+    public void setRollingPolicy(long maxFileBytes, long rolloverIntervalMillis, int maxBackups) {
+        if (fileAppender != null) {
+            fileAppender.setPolicy(maxFileBytes, rolloverIntervalMillis, maxBackups);
+        }
+    }
+    
+    /**
+     * Also write every message as a binary record to a memory-mapped file, appending if it
+     * exists. Arguments are stored typed instead of formatted, so combined with deferred
+     * formatting and the text outputs turned off no text is rendered at all; records reach
+     * the OS page cache immediately and survive a JVM crash. Read the file back with
+     * {@link BinaryLogDecoder}.
+     */
+    public void enableBinaryOutput(Path file) {
+        try {
+            BinaryLogWriter previous = binaryWriter;
+            binaryWriter = new BinaryLogWriter(file);
+            if (previous != null) {
+                previous.close();
+            }
+            info("Binary output enabled: %s", file);
+        } catch (IOException e) {
+            System.err.println("Failed to open binary log file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Stop writing binary records and close the binary log file
+     */
+    public void disableBinaryOutput() {
+        BinaryLogWriter previous = binaryWriter;
+        if (previous != null) {
+            flush(); // let messages already logged reach the binary file
+            binaryWriter = null;
+            flush(); // wait for a batch that may still hold the old writer
+            try {
+                previous.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close binary log file: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Choose what happens when the buffer is full
+     */
+    public void setOverflowPolicy(OverflowPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Overflow policy cannot be null");
+        }
+        this.overflowPolicy = policy;
+    }
+    
+    /**
+     * Get current overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    /**
+     * Lowest level that DROP_BELOW_LEVEL still waits for instead of dropping
+     */
+    public void setOverflowThreshold(LogLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Overflow threshold cannot be null");
+        }
+        this.overflowThreshold = level;
+    }
+    
+    /**
+     * Keep one message in sampleRate under the SAMPLE policy
+     */
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Sample rate must be at least 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+    
+    /**
+     * Allow at most maxEventsPerSecond messages per call site (identified by its message
+     * template) each second; the rest are replaced by one "suppressed" summary per second.
+     * 0 disables rate limiting.
+     */
+    public void setRateLimit(int maxEventsPerSecond) {
+        setRateLimit(maxEventsPerSecond, TimeUnit.SECONDS.toMillis(1));
+    }
+    
+    /**
+     * Allow at most maxEvents messages per message template in each window of windowMillis
+     */
+    public void setRateLimit(int maxEvents, long windowMillis) {
+        rateLimiter.configure(maxEvents, windowMillis);
+    }
+    
+    /**
+     * Total number of messages dropped by overflow policies
+     */
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (LongAdder count : droppedCounts) {
+            dropped += count.sum();
+        }
+        return dropped;
+    }
+    
+    /**
+     * Queue depth, throughput, drop and flush latency metrics for tuning the buffer and policy
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", ringBuffer.size());
+        metrics.put("queueCapacity", ringBuffer.capacity());
+        metrics.put("peakQueueDepth", peakQueueDepth.get());
+        metrics.put("overflowPolicy", overflowPolicy);
+        metrics.put("accepted", acceptedCount.sum());
+        metrics.put("written", writtenCount.sum());
+        metrics.put("blocked", blockedCount.sum());
+        metrics.put("blockedBriefly", briefWaitCount.sum());
+        metrics.put("rateLimited", rateLimiter.getSuppressedCount());
+        metrics.put("rateLimitedTemplates", rateLimiter.getTrackedTemplates());
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            if (policy != OverflowPolicy.BLOCK) {
+                metrics.put("dropped." + policy.name().toLowerCase(), droppedCounts[policy.ordinal()].sum());
+            }
+        }
+        long flushes = flushCount.sum();
+        metrics.put("flushCount", flushes);
+        metrics.put("flushLatencyAvgMicros", flushes == 0 ? 0.0 : flushNanos.sum() / 1000.0 / flushes);
+        metrics.put("flushLatencyMaxMicros", maxFlushNanos.get() / 1000);
+        BinaryLogWriter binary = binaryWriter;
+        metrics.put("binaryBytes", binary == null ? 0 : binary.size());
+        return metrics;
+    }
+    
     /**
      * Get log file name
      */
@@ -255,39 +629,57 @@ public class Logger {
      * Get buffer size (for monitoring)
      */
     public int getBufferSize() {
-        return logBuffer.size();
+        return ringBuffer.size();
     }
     
     /**
-     * Force flush of log buffer
+     * Get buffer capacity; producers wait when this many messages are pending
+     */
+    public int getBufferCapacity() {
+        return ringBuffer.capacity();
+    }
+    
+    /**
+     * Wait until every message logged before this call has been written
      */
     public void flush() {
-        processLogBuffer();
+        ringBuffer.awaitConsumed(TimeUnit.SECONDS.toMillis(5));
     }
     
     /**
      * Shutdown logger and cleanup resources
      */
     public void shutdown() {
+        if (!ringBuffer.isRunning()) {
+            return;
+        }
         info("Logger shutting down...");
+        rateLimiter.close(); // queue the remaining suppression summaries
         
-        // Process remaining messages
-        processLogBuffer();
-        
-        // Shutdown executor
-        executorService.shutdown();
+        // The processor drains the remaining messages before it exits
+        ringBuffer.stop();
         try {
-            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
+            processorThread.join(TimeUnit.SECONDS.toMillis(5));
         } catch (InterruptedException e) {
-            executorService.shutdownNow();
             Thread.currentThread().interrupt();
         }
         
-        // Close file writer
-        if (fileWriter != null) {
-            fileWriter.close();
+        BinaryLogWriter binary = binaryWriter;
+        if (binary != null) {
+            try {
+                binary.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close binary log file: " + e.getMessage());
+            }
+        }
+        
+        // Close file appender, waiting for rotated files to be compressed
+        if (fileAppender != null) {
+            try {
+                fileAppender.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close log file: " + e.getMessage());
+            }
         }
     }
     
@@ -0,0 +1,17 @@
+package creational.singleton.loggersystem;
+
+/**
+ * What the Logger does when producers outrun the background thread and the ring buffer fills up
+ */
+public enum OverflowPolicy {
+    /** Wait for space; nothing is lost, callers slow down to the speed of the outputs */
+    BLOCK,
+    /** Drop the message being logged */
+    DROP_NEWEST,
+    /** Discard the oldest pending messages unwritten; a producer that finds the buffer full blocks briefly, until the background thread's next write discards them */
+    DROP_OLDEST,
+    /** Drop messages below the overflow threshold level, wait for space for the rest */
+    DROP_BELOW_LEVEL,
+    /** Once the buffer is half full keep one message in N; drop everything while it is full */
+    SAMPLE
+}
@@ -0,0 +1,189 @@
+package creational.singleton.loggersystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-call-site rate limiter for the Logger.
+ *
+ * Message templates are string literals, so a template identifies its call site without
+ * walking the stack. Each template gets a fixed window counter: the first maxEvents
+ * messages of a window pass and the rest are only counted. Once the window is over the
+ * count is reported as one summary, by the next message from that template or by a
+ * periodic sweep, whichever comes first. The hot path is one map lookup and a clock
+ * read; suppressed messages only read the window counter and add to a striped counter.
+ */
+final class RateLimiter {
+
+    /**
+     * Receives one summary per template and window that had suppressed messages
+     */
+    interface SuppressionListener {
+        void suppressed(Logger.LogLevel level, String template, long count, long windowMillis);
+    }
+
+    // Templates built by concatenation would otherwise grow the map without bound
+    private static final int MAX_TRACKED_TEMPLATES = 10_000;
+    private static final int IDLE_WINDOWS_BEFORE_EVICTION = 60;
+
+    private static final class Window {
+        final AtomicLong startNanos;
+        final AtomicInteger count = new AtomicInteger();
+        final LongAdder suppressed = new LongAdder(); // hot call sites add to it from many threads
+        volatile Logger.LogLevel level; // level of the latest suppressed message, used for the summary
+
+        Window(long startNanos, Logger.LogLevel level) {
+            this.startNanos = new AtomicLong(startNanos);
+            this.level = level;
+        }
+    }
+
+    private final SuppressionListener listener;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressedTotal = new LongAdder();
+    private volatile int maxEvents; // 0 disables rate limiting
+    private volatile long windowNanos = TimeUnit.SECONDS.toNanos(1);
+    private ScheduledExecutorService sweeper;
+    private ScheduledFuture<?> sweepTask;
+
+    RateLimiter(SuppressionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Allow at most maxEvents messages per template in each window; 0 disables the limit.
+     * Counts still pending from the previous configuration are reported first.
+     */
+    synchronized void configure(int maxEvents, long windowMillis) {
+        if (maxEvents < 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Rate limit cannot be negative and the window must be positive");
+        }
+        reportPending(Long.MAX_VALUE);
+        windows.clear();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxEvents = maxEvents;
+
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+        if (maxEvents > 0) {
+            if (sweeper == null) {
+                sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "Logger-RateLimiter");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            long period = Math.max(10, windowMillis / 4);
+            sweepTask = sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Count a message against its template's window; false means it should be dropped
+     */
+    boolean tryAcquire(String template, Logger.LogLevel level) {
+        int limit = maxEvents;
+        if (limit == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        Window window = windows.get(template);
+        if (window == null) {
+            if (windows.size() >= MAX_TRACKED_TEMPLATES) {
+                return true;
+            }
+            window = windows.computeIfAbsent(template, t -> new Window(now, level));
+        }
+
+        long start = window.startNanos.get();
+        if (now - start >= windowNanos && window.startNanos.compareAndSet(start, now)) {
+            // This caller opens the next window; report the previous one before its own message
+            window.count.set(0);
+            report(template, window);
+        }
+        // Once the window is used up only read the shared counter, so suppression does not contend
+        if (window.count.get() < limit && window.count.incrementAndGet() <= limit) {
+            return true;
+        }
+        if (window.level != level) {
+            window.level = level;
+        }
+        window.suppressed.increment();
+        suppressedTotal.increment();
+        return false;
+    }
+
+    long getSuppressedCount() {
+        return suppressedTotal.sum();
+    }
+
+    int getTrackedTemplates() {
+        return windows.size();
+    }
+
+    /**
+     * Report everything still pending and stop the sweeper thread
+     */
+    synchronized void close() {
+        maxEvents = 0;
+        reportPending(Long.MAX_VALUE);
+        windows.clear();
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+            sweepTask = null;
+        }
+    }
+
+    /**
+     * Report windows that ended without another message from their template, and forget
+     * templates that have been quiet for a long time
+     */
+    private void sweep() {
+        try {
+            long window = windowNanos;
+            reportPending(window);
+            long now = System.nanoTime();
+            for (Map.Entry<String, Window> entry : windows.entrySet()) {
+                Window idle = entry.getValue();
+                if (now - idle.startNanos.get() >= window * IDLE_WINDOWS_BEFORE_EVICTION
+                        && idle.suppressed.sum() == 0) {
+                    windows.remove(entry.getKey(), idle);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Rate limiter sweep failed: " + e.getMessage());
+        }
+    }
+
+    private void reportPending(long minAgeNanos) {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            if (minAgeNanos == Long.MAX_VALUE || now - window.startNanos.get() >= minAgeNanos) {
+                report(entry.getKey(), window);
+            }
+        }
+    }
+
+    private void report(String template, Window window) {
+        long suppressed;
+        synchronized (window) {
+            // Subtracting what was read keeps increments that race with the report for the next one
+            suppressed = window.suppressed.sum();
+            window.suppressed.add(-suppressed);
+        }
+        if (suppressed > 0) {
+            listener.suppressed(window.level, template, suppressed, TimeUnit.NANOSECONDS.toMillis(windowNanos));
+        }
+    }
+}
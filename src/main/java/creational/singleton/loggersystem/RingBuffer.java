@@ -0,0 +1,189 @@
+package creational.singleton.loggersystem;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated log events.
+ *
+ * Producers claim a sequence with a CAS on the cursor, fill the slot and publish it;
+ * the consumer processes every contiguous published sequence in one batch and then
+ * releases the slots. Nothing is allocated per event, and producers only take a lock
+ * to wake the consumer when it is actually parked.
+ */
+final class RingBuffer {
+
+    private final LogEvent[] entries;
+    private final int mask;
+    private final AtomicLongArray published; // sequence last published into each slot
+    private final AtomicLong cursor = new AtomicLong(-1);   // highest claimed sequence
+    private final AtomicLong consumed = new AtomicLong(-1); // highest sequence the consumer is done with
+    private volatile boolean running = true;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition publishedCondition = lock.newCondition();
+    private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+    RingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1; // round up to a power of two so the slot index is a mask
+        }
+        this.entries = new LogEvent[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new LogEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Claim the next sequence without waiting; -1 if the ring is full
+     */
+    long tryNext() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - entries.length > consumed.get()) {
+                return -1;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Claim the next sequence, waiting while the ring is full; -1 once the ring is stopped
+     */
+
+    long next() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - entries.length > consumed.get()) {
+                if (!running) {
+                    return -1;
+                }
+                LockSupport.parkNanos(1_000); // full: give the consumer a moment
+                continue;
+            }
+
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    LogEvent get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    /**
+     * Make a filled slot visible to the consumer, waking it if it is parked
+     */
+    void publish(long sequence) {
+        published.lazySet((int) sequence & mask, sequence);
+        if (signalNeeded.get() && signalNeeded.getAndSet(false)) {
+            signalAll();
+        }
+    }
+
+    /**
+     * Highest sequence from 'from' up to 'claimed' with every slot in between published
+     */
+    long highestPublished(long from, long claimed) {
+        for (long sequence = from; sequence <= claimed; sequence++) {
+            if (published.get((int) sequence & mask) != sequence) {
+                return sequence - 1;
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Blocking wait used by {@link WaitStrategy#BLOCKING}
+     */
+    long awaitCursor(long sequence, long timeoutNanos) throws InterruptedException {
+        long available = cursor.get();
+        if (available >= sequence) {
+            return available;
+        }
+        lock.lock();
+        try {
+            long remaining = timeoutNanos;
+            while ((available = cursor.get()) < sequence && running && remaining > 0) {
+                signalNeeded.set(true);
+                // Re-check after raising the flag so a publish in between is not missed
+                if ((available = cursor.get()) >= sequence) {
+                    break;
+                }
+                remaining = publishedCondition.awaitNanos(remaining);
+            }
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void markConsumed(long sequence) {
+        consumed.lazySet(sequence);
+    }
+
+    long getCursor() {
+        return cursor.get();
+    }
+
+    long getConsumed() {
+        return consumed.get();
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Events claimed but not yet processed
+     */
+    int size() {
+        return (int) (cursor.get() - consumed.get());
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Wait until the consumer has processed everything claimed before this call
+     */
+    void awaitConsumed(long timeoutMillis) {
+        long target = cursor.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (consumed.get() < target && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    void stop() {
+        running = false;
+        signalAll();
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            publishedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
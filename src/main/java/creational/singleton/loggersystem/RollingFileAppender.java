@@ -0,0 +1,264 @@
+package creational.singleton.loggersystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Log file appender that batches lines in direct buffers and writes each batch with
+ * one FileChannel gather write. The file rolls over when it reaches a size limit or
+ * when the rollover interval ends; rotated files are gzipped on a background thread
+ * and only the newest maxBackups archives are kept. A zero size limit, interval or
+ * maxBackups disables that limit.
+ *
+ * The logger thread is the only writer; the methods are synchronized so that
+ * truncate and close from other threads do not interleave with a batch.
+ */
+final class RollingFileAppender {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int BUFFER_COUNT = 16; // up to 1 MB per gather write
+    private static final DateTimeFormatter ROLLOVER_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path file;
+    private final String baseName;
+    private final String extension;
+    private final ByteBuffer[] buffers;
+    private final ExecutorService compressor;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private FileChannel channel;
+    private int current;       // index of the buffer being filled
+    private long fileBytes;    // bytes already written to the current file
+    private long bufferedBytes;
+    private long nextRolloverMillis;
+    private int rolloverIndex;
+
+    private long maxFileBytes;
+    private long rolloverIntervalMillis;
+    private volatile int maxBackups; // also read by the compressor thread
+
+    RollingFileAppender(Path file, long maxFileBytes, long rolloverIntervalMillis, int maxBackups) throws IOException {
+        this.file = file.toAbsolutePath();
+        String name = this.file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        this.buffers = new ByteBuffer[BUFFER_COUNT];
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        }
+        this.compressor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Logger-Compressor");
+            t.setDaemon(true);
+            return t;
+        });
+        setPolicy(maxFileBytes, rolloverIntervalMillis, maxBackups);
+        open(StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Change the limits; 0 disables size or time based rollover, or the archive limit
+     */
+    synchronized void setPolicy(long maxFileBytes, long rolloverIntervalMillis, int maxBackups) {
+        if (maxFileBytes < 0 || rolloverIntervalMillis < 0 || maxBackups < 0) {
+            throw new IllegalArgumentException("Rolling policy limits cannot be negative");
+        }
+        this.maxFileBytes = maxFileBytes;
+        this.rolloverIntervalMillis = rolloverIntervalMillis;
+        this.maxBackups = maxBackups;
+        this.nextRolloverMillis = nextBoundary(System.currentTimeMillis());
+    }
+
+    /**
+     * Encode a formatted line straight into the batch buffers
+     */
+    synchronized void append(StringBuilder line, EventFormatter formatter) throws IOException {
+        rollIfNeeded();
+        int maxBytes = formatter.maxEncodedBytes(line);
+        if (maxBytes > BUFFER_BYTES) {
+            appendBytes(formatter.encode(line)); // oversized line: encode on the heap first
+            return;
+        }
+        ByteBuffer buffer = reserve(maxBytes);
+        int start = buffer.position();
+        formatter.encodeInto(line, buffer);
+        bufferedBytes += buffer.position() - start;
+    }
+
+    /**
+     * Append already encoded bytes, for example the copy produced for the console
+     */
+    synchronized void append(ByteBuffer bytes) throws IOException {
+        rollIfNeeded();
+        appendBytes(bytes);
+    }
+
+    /**
+     * Write everything batched so far with a single gather write
+     */
+    synchronized void flush() throws IOException {
+        if (bufferedBytes == 0) {
+            return;
+        }
+        int used = current + 1;
+        for (int i = 0; i < used; i++) {
+            buffers[i].flip();
+        }
+        while (buffers[current].hasRemaining()) {
+            channel.write(buffers, 0, used);
+        }
+        for (int i = 0; i < used; i++) {
+            buffers[i].clear();
+        }
+        fileBytes += bufferedBytes;
+        bufferedBytes = 0;
+        current = 0;
+    }
+
+    /**
+     * Discard the current file's contents
+     */
+    synchronized void truncate() throws IOException {
+        flush();
+        channel.truncate(0);
+        fileBytes = 0;
+    }
+
+    /**
+     * Flush, close the file and wait for pending compressions
+     */
+    synchronized void close() throws IOException {
+        flush();
+        channel.close();
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void appendBytes(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() > BUFFER_BYTES) {
+            flush();
+            while (bytes.hasRemaining()) {
+                fileBytes += channel.write(bytes);
+            }
+            return;
+        }
+        int length = bytes.remaining();
+        reserve(length).put(bytes);
+        bufferedBytes += length;
+    }
+
+    /**
+     * Buffer with at least 'bytes' free, moving to the next buffer or flushing the batch
+     */
+    private ByteBuffer reserve(int bytes) throws IOException {
+        ByteBuffer buffer = buffers[current];
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        if (current + 1 < BUFFER_COUNT) {
+            current++;
+        } else {
+            flush();
+        }
+        return buffers[current];
+    }
+
+    private void rollIfNeeded() throws IOException {
+        boolean sizeExceeded = maxFileBytes > 0 && fileBytes + bufferedBytes >= maxFileBytes;
+        boolean intervalEnded = rolloverIntervalMillis > 0 && System.currentTimeMillis() >= nextRolloverMillis;
+        if (sizeExceeded || intervalEnded) {
+            roll();
+        }
+    }
+
+    /**
+     * Rename the current file, reopen a fresh one and compress the old one in the background
+     */
+    private void roll() throws IOException {
+        flush();
+        channel.close();
+        long now = System.currentTimeMillis();
+        if (fileBytes > 0) {
+            String stamp = LocalDateTime.now(zone).format(ROLLOVER_FORMAT);
+            String name = String.format("%s-%s-%04d%s", baseName, stamp, rolloverIndex++, extension);
+            Path rotated = file.resolveSibling(name);
+            Files.move(file, rotated);
+            compressor.execute(() -> compress(rotated));
+        }
+        nextRolloverMillis = nextBoundary(now);
+        open(StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void open(StandardOpenOption mode) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+        fileBytes = channel.size();
+    }
+
+    /**
+     * Next interval boundary in local time, so a daily interval rolls at midnight
+     */
+    private long nextBoundary(long now) {
+        if (rolloverIntervalMillis == 0) {
+            return Long.MAX_VALUE;
+        }
+        long offset = zone.getRules().getOffset(Instant.ofEpochMilli(now)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(now + offset, rolloverIntervalMillis) * rolloverIntervalMillis
+                + rolloverIntervalMillis - offset;
+    }
+
+    private void compress(Path rotated) {
+        Path archive = rotated.resolveSibling(rotated.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(rotated);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive), BUFFER_BYTES)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            System.err.println("Failed to compress log file " + rotated + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.delete(rotated);
+            deleteOldArchives();
+        } catch (IOException e) {
+            System.err.println("Failed to clean up rotated log files: " + e.getMessage());
+        }
+    }
+
+    private void deleteOldArchives() throws IOException {
+        int keep = maxBackups;
+        if (keep == 0) {
+            return; // no limit, keep every archive
+        }
+        List<Path> archives = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(file.getParent(),
+                baseName + "-*" + extension + ".gz")) {
+            stream.forEach(archives::add);
+        }
+        // Names start with a sortable timestamp, so name order is age order
+        Collections.sort(archives);
+        for (int i = 0; i < archives.size() - keep; i++) {
+            Files.deleteIfExists(archives.get(i));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package creational.singleton.loggersystem;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How the background logging thread waits for new events
+ */
+public enum WaitStrategy {
+    /** Park until a producer signals; lowest CPU use, a few microseconds of wake-up latency */
+    BLOCKING {
+        @Override
+        long waitFor(RingBuffer ring, long sequence) throws InterruptedException {
+            return ring.awaitCursor(sequence, TimeUnit.SECONDS.toNanos(1));
+        }
+    },
+    /** Spin, then yield, then sleep in short steps; producers never take a lock to signal */
+    SLEEPING {
+        @Override
+        long waitFor(RingBuffer ring, long sequence) {
+            int spins = 200;
+            long available;
+            while ((available = ring.getCursor()) < sequence && ring.isRunning()) {
+                if (spins > 100) {
+                    Thread.onSpinWait();
+                } else if (spins > 0) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+                spins = Math.max(spins - 1, 0);
+            }
+            return available;
+        }
+    },
+    /** Spin on the cursor; lowest latency, burns a core */
+    BUSY_SPIN {
+        @Override
+        long waitFor(RingBuffer ring, long sequence) {
+            long available;
+            while ((available = ring.getCursor()) < sequence && ring.isRunning()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+    };
+
+    /**
+     * Wait until the claimed cursor reaches sequence; may return earlier on timeout or shutdown
+     */
+    abstract long waitFor(RingBuffer ring, long sequence) throws InterruptedException;
+}
@@ -1,5 +1,8 @@
 package creational.singleton.loggersystem;
 
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Demonstration of the Logger Singleton
  */
@@ -138,6 +141,9 @@ public class ZMain {
         logger.setFileOutput(true);
         logger.info("Back to logging to both console and file");
         
+        logger.setRollingPolicy(5 * 1024 * 1024, TimeUnit.HOURS.toMillis(1), 24);
+        logger.info("Log file rolls hourly or at 5 MB; the newest 24 rotated files are kept gzipped");
+        
         // Demonstrate performance with high-volume logging
         System.out.println("\n=== Performance Demo ===");
         long startTime = System.currentTimeMillis();
@@ -149,9 +155,77 @@ public class ZMain {
         long endTime = System.currentTimeMillis();
         logger.info("Logged 1000 messages in %d milliseconds", (endTime - startTime));
         
+        // Demonstrate deferred formatting
+        System.out.println("\n=== Deferred Formatting Demo ===");
+        logger.setDeferredFormatting(true);
+        logger.setConsoleOutput(false);
+        startTime = System.nanoTime();
+        
+        for (int i = 0; i < 10000; i++) {
+            logger.info("Deferred message %d for user %s", i, userName);
+        }
+        
+        long deferredMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        logger.flush();
+        logger.setConsoleOutput(true);
+        logger.info("Captured 10000 deferred messages in %d us; formatting ran on the logger thread",
+                deferredMicros);
+        logger.setDeferredFormatting(false);
+        
+        // Demonstrate overflow handling when producers outrun the outputs
+        System.out.println("\n=== Backpressure Demo ===");
+        logger.setConsoleOutput(false);
+        logger.setOverflowPolicy(OverflowPolicy.DROP_BELOW_LEVEL);
+        logger.setOverflowThreshold(Logger.LogLevel.WARN); // never drop warnings and errors
+        
+        for (int i = 0; i < 100000; i++) {
+            logger.info("Flood message %d", i);
+        }
+        logger.warn("Warnings still get through during a flood");
+        logger.flush();
+        
+        logger.setOverflowPolicy(OverflowPolicy.BLOCK);
+        logger.setConsoleOutput(true);
+        logger.getMetrics().forEach((name, value) -> System.out.println("  " + name + ": " + value));
+        
+        // Demonstrate per-call-site rate limiting of a noisy retry loop
+        System.out.println("\n=== Rate Limiting Demo ===");
+        logger.setRateLimit(3); // at most 3 messages per second from each call site
+        
+        for (int attempt = 1; attempt <= 500; attempt++) {
+            logger.warn("Retrying connection, attempt %d", attempt);
+        }
+        logger.info("Other call sites are not affected");
+        try {
+            Thread.sleep(1500); // the summary line appears once the window ends
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.flush();
+        logger.setRateLimit(0);
+        
+        // Demonstrate binary output: typed records in a memory-mapped file, no text rendering
+        System.out.println("\n=== Binary Output Demo ===");
+        logger.setConsoleOutput(false);
+        logger.setFileOutput(false);
+        logger.setDeferredFormatting(true);
+        logger.enableBinaryOutput(Path.of("application.blog"));
+        
+        for (int i = 0; i < 10000; i++) {
+            logger.info("Binary message %d for user %s", i, userName);
+        }
+        
+        logger.disableBinaryOutput();
+        logger.setDeferredFormatting(false);
+        logger.setFileOutput(true);
+        logger.setConsoleOutput(true);
+        logger.info("Wrote 10000 binary records; decode with: java %s application.blog --level INFO",
+                BinaryLogDecoder.class.getName());
+        
         // Demonstrate monitoring capabilities
         System.out.println("\n=== Monitoring Demo ===");
-        logger.info("Buffer size: %d messages", logger.getBufferSize());
+        logger.info("Buffer size: %d of %d messages", logger.getBufferSize(), logger.getBufferCapacity());
+        logger.info("Wait strategy: %s", logger.getWaitStrategy());
         logger.info("Log file location: %s", logger.getLogFileName());
         logger.info("Current log level: %s", logger.getLogLevel());
         logger.info("Debug level enabled: %s", logger.isLevelEnabled(Logger.LogLevel.DEBUG));